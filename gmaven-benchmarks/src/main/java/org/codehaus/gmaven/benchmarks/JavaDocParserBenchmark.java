@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.benchmarks;
+
+import org.codehaus.gmaven.runtime.support.stubgen.model.JavaDocDef;
+import org.codehaus.gmaven.runtime.support.stubgen.model.JavaDocParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing the javadocs which precede a member, as the stub model does for each documented element.
+ *
+ * @version $Id$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavaDocParserBenchmark
+{
+    private static final String SHORT =
+        "    /**\n" +
+        "     * Adds a value under the given key.\n" +
+        "     */\n" +
+        "    void add(String key, int value)";
+
+    private static final String TAGGED =
+        "    int count = 0\n\n" +
+        "    /**\n" +
+        "     * Sums the values stored under the given key, or returns <tt>0</tt> when there are none.\n" +
+        "     *\n" +
+        "     * @param key   The key to sum the values of.\n" +
+        "     * @return      The sum of the values.\n" +
+        "     * @throws IllegalArgumentException  When the key is null.\n" +
+        "     * @since 1.6\n" +
+        "     */\n" +
+        "    int sum(String key)";
+
+    private final JavaDocParser parser = new JavaDocParser();
+
+    @Benchmark
+    public JavaDocDef parseShort() {
+        return parser.parse(SHORT);
+    }
+
+    @Benchmark
+    public JavaDocDef parseTagged() {
+        return parser.parse(TAGGED);
+    }
+
+    @Benchmark
+    public JavaDocDef parseWithoutJavaDoc() {
+        return parser.parse("    int count = 0");
+    }
+}
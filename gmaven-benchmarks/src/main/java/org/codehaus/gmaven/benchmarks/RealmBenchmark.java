@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.benchmarks;
+
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks creating and releasing the per-execution component realm, and loading through it.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RealmBenchmark
+{
+    @Benchmark
+    public Class componentRealm(final RuntimeState state) throws Exception {
+        ClassRealm realm = state.realmManager.createComponentRealm(state.provider, new URL[0]);
+        try {
+            return realm.loadClass("groovy.lang.GroovyObject");
+        }
+        finally {
+            state.realmManager.releaseComponentRealm(realm);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.benchmarks;
+
+import org.codehaus.gmaven.feature.Configuration;
+import org.codehaus.gmaven.runtime.ClassCompiler;
+import org.codehaus.gmaven.runtime.ScriptExecutor;
+import org.codehaus.gmaven.runtime.StubCompiler;
+import org.codehaus.gmaven.runtime.util.ClassSource;
+import org.codehaus.gmaven.runtime.util.ResourceLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the compile, stub generation and script execution features of each runtime.
+ *
+ * @version $Id$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RuntimeFeatureBenchmark
+{
+    private static final String[] SAMPLES = {
+        "Greeter.groovy",
+        "Model.groovy",
+    };
+
+    private static final String SCRIPT = "def total = 0; (1..100).each { total += it }; return total";
+
+    private File workDir;
+
+    private File sourceDir;
+
+    private File targetDir;
+
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup(final RuntimeState state) throws Exception {
+        workDir = state.workDir;
+        sourceDir = new File(workDir, "src-" + Thread.currentThread().getId());
+        sourceDir.mkdirs();
+
+        for (String sample : SAMPLES) {
+            RuntimeState.copySample(sample, sourceDir);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newTarget() {
+        // Fresh output for each invocation so nothing is skipped as up-to-date
+        targetDir = new File(workDir, "out-" + Thread.currentThread().getId() + "-" + counter++);
+        targetDir.mkdirs();
+    }
+
+    private void addSources(final org.codehaus.gmaven.runtime.util.Compiler compiler) {
+        for (String sample : SAMPLES) {
+            compiler.add(new File(sourceDir, sample));
+        }
+        compiler.setTargetDirectory(targetDir);
+        compiler.setClassPath(new URL[0]);
+    }
+
+    @Benchmark
+    public int compileClasses(final RuntimeState state) throws Exception {
+        ClassCompiler compiler = (ClassCompiler) state.provider.feature(ClassCompiler.KEY).create();
+        addSources(compiler);
+        return compiler.compile();
+    }
+
+    @Benchmark
+    public int generateStubs(final RuntimeState state) throws Exception {
+        StubCompiler compiler = (StubCompiler) state.provider.feature(StubCompiler.KEY).create();
+        addSources(compiler);
+        return compiler.compile();
+    }
+
+    @Benchmark
+    public Object executeScript(final RuntimeState state) throws Exception {
+        ScriptExecutor executor = (ScriptExecutor) state.provider.feature(ScriptExecutor.KEY).create();
+        ResourceLoader resources = new ResourceLoader() {
+            public URL loadResource(final String name) throws MalformedURLException {
+                return null;
+            }
+        };
+
+        return executor.execute(ClassSource.forValue(SCRIPT), state.realm, resources, new Configuration());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.benchmarks;
+
+import org.codehaus.gmaven.feature.Provider;
+import org.codehaus.gmaven.runtime.loader.realm.DefaultRealmManager;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads one of the Groovy runtimes into its own realm, the same way the plugin does.
+ *
+ * Runtime jars are read from <tt>${gmaven.benchmarks.runtimes}/&lt;key&gt;</tt>, which the build populates.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+public class RuntimeState
+{
+    public static final String RUNTIMES_DIR = "gmaven.benchmarks.runtimes";
+
+    @Param({ "1.5", "1.6", "1.7", "1.8", "2.0" })
+    public String runtime;
+
+    public DefaultRealmManager realmManager;
+
+    public ClassRealm realm;
+
+    public Provider provider;
+
+    public File workDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        realmManager = new DefaultRealmManager();
+        realm = realmManager.createProviderRealm(runtime, classPath(runtime), getClass().getClassLoader());
+
+        String className = "org.codehaus.gmaven.runtime.v" + runtime.replace('.', '_') + ".ProviderImpl";
+        provider = (Provider) realm.loadClass(className).newInstance();
+
+        workDir = File.createTempFile("gmaven-benchmarks-", "");
+        workDir.delete();
+        workDir.mkdirs();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        realmManager.dispose();
+        delete(workDir);
+    }
+
+    /**
+     * Returns the jars for the given runtime key.
+     */
+    public static URL[] classPath(final String key) throws IOException {
+        File dir = new File(System.getProperty(RUNTIMES_DIR, "target/runtimes"), key);
+        File[] files = dir.listFiles();
+
+        if (files == null || files.length == 0) {
+            throw new FileNotFoundException("No runtime jars found in: " + dir.getAbsolutePath() + " (set -D" + RUNTIMES_DIR + ")");
+        }
+
+        Arrays.sort(files);
+
+        List<URL> urls = new ArrayList<URL>(files.length);
+        for (File file : files) {
+            urls.add(file.toURI().toURL());
+        }
+
+        return urls.toArray(new URL[urls.size()]);
+    }
+
+    /**
+     * Copies a bundled sample source into the given directory.
+     */
+    public static File copySample(final String name, final File dir) throws IOException {
+        InputStream input = RuntimeState.class.getResourceAsStream(name);
+        if (input == null) {
+            throw new FileNotFoundException("Missing sample: " + name);
+        }
+
+        File file = new File(dir, name);
+        OutputStream output = new FileOutputStream(file);
+        try {
+            byte[] buff = new byte[4096];
+            int n;
+            while ((n = input.read(buff)) != -1) {
+                output.write(buff, 0, n);
+            }
+        }
+        finally {
+            output.close();
+            input.close();
+        }
+
+        return file;
+    }
+
+    public static void delete(final File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.benchmarks;
+
+import org.codehaus.gmaven.runtime.loader.realm.DefaultRealmManager;
+import org.codehaus.gmaven.runtime.support.stubgen.model.ModelFactory;
+import org.codehaus.gmaven.runtime.support.stubgen.model.SourceDef;
+import org.codehaus.gmaven.runtime.support.stubgen.render.Renderer;
+import org.codehaus.gmaven.runtime.support.stubgen.render.RendererFactory;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building the stub model of a source ({@code ModelFactorySupport.create}) and rendering it
+ * ({@code RendererSupport.render}).
+ *
+ * Only the 1.5 and 1.6 runtimes have their own stub model; the later ones use the stub generator of Groovy.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StubModelBenchmark
+{
+    @Param({ "1.5", "1.6" })
+    public String runtime;
+
+    private DefaultRealmManager realmManager;
+
+    private ModelFactory modelFactory;
+
+    private RendererFactory rendererFactory;
+
+    private File workDir;
+
+    private URL source;
+
+    private SourceDef model;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        realmManager = new DefaultRealmManager();
+        ClassRealm realm = realmManager.createProviderRealm(runtime, RuntimeState.classPath(runtime), getClass().getClassLoader());
+
+        String pkg = "org.codehaus.gmaven.runtime.v" + runtime.replace('.', '_') + ".stubgen.";
+        modelFactory = (ModelFactory) realm.loadClass(pkg + "ModelFactoryImpl").newInstance();
+        rendererFactory = (RendererFactory) realm.loadClass(pkg + "RendererFactoryImpl").newInstance();
+
+        workDir = File.createTempFile("gmaven-benchmarks-", "");
+        workDir.delete();
+        workDir.mkdirs();
+
+        source = RuntimeState.copySample("Model.groovy", workDir).toURI().toURL();
+
+        // Rendering is measured on its own, against a model built once
+        model = modelFactory.create(source);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        realmManager.dispose();
+        RuntimeState.delete(workDir);
+    }
+
+    @Benchmark
+    public SourceDef createModel() throws Exception {
+        return modelFactory.create(source);
+    }
+
+    @Benchmark
+    public int renderStubs() throws Exception {
+        int length = 0;
+
+        // Renderers keep per-class state, so they are created for each render like the stub compiler does
+        for (Object renderer : rendererFactory.create(model)) {
+            StringWriter writer = new StringWriter();
+            ((Renderer) renderer).render(writer);
+            length += writer.getBuffer().length();
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.benchmarks;
+
+import org.codehaus.gmaven.benchmarks.synthetic.SyntheticProjectGenerator;
+import org.codehaus.gmaven.runtime.StubCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks stub generation over a synthetic project, to see how each runtime scales with the number of sources.
+ *
+ * @version $Id$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SyntheticStubBenchmark
+{
+    @Param({ "1000", "10000" })
+    public int files;
+
+    private List<File> sources;
+
+    private File projectDir;
+
+    private File targetDir;
+
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup(final RuntimeState state) throws Exception {
+        projectDir = new File(state.workDir, "synthetic-" + files);
+
+        SyntheticProjectGenerator generator = new SyntheticProjectGenerator();
+        generator.setFiles(files);
+        generator.generate(projectDir);
+
+        sources = new ArrayList<File>();
+        collect(new File(projectDir, "src/main/groovy"), sources);
+    }
+
+    @Setup(Level.Iteration)
+    public void newTarget() {
+        targetDir = new File(projectDir, "target/stubs-" + counter++);
+        targetDir.mkdirs();
+    }
+
+    private static void collect(final File dir, final List<File> files) {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    collect(child, files);
+                }
+                else if (child.getName().endsWith(".groovy")) {
+                    files.add(child);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int generateStubs(final RuntimeState state) throws Exception {
+        StubCompiler compiler = (StubCompiler) state.provider.feature(StubCompiler.KEY).create();
+        for (File source : sources) {
+            compiler.add(source);
+        }
+        compiler.setTargetDirectory(targetDir);
+        compiler.setClassPath(new URL[0]);
+        return compiler.compile();
+    }
+}
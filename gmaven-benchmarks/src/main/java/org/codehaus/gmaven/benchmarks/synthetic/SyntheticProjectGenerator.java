@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.benchmarks.synthetic;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Generates a synthetic Maven project layout with a configurable number of Groovy and Java sources.
+ *
+ * The sources exercise what real projects do to the compilers: inheritance chains, generics,
+ * annotations, closures, javadocs and Java/Groovy cross-references in both directions.
+ * Output is deterministic for a given set of settings.
+ *
+ * @version $Id$
+ */
+public class SyntheticProjectGenerator
+{
+    private static final String ROOT_PACKAGE = "synthetic";
+
+    private int files = 1000;
+
+    private int javaPercent = 10;
+
+    private int testPercent = 20;
+
+    private int chainDepth = 4;
+
+    private int packageSize = 50;
+
+    private String encoding = "UTF-8";
+
+    public int getFiles() {
+        return files;
+    }
+
+    /**
+     * Total number of generated source files, main and test.
+     */
+    public void setFiles(final int files) {
+        if (files < 2) {
+            throw new IllegalArgumentException("Need at least 2 files: " + files);
+        }
+        this.files = files;
+    }
+
+    public int getJavaPercent() {
+        return javaPercent;
+    }
+
+    /**
+     * Percentage of main sources which are Java instead of Groovy.
+     */
+    public void setJavaPercent(final int javaPercent) {
+        this.javaPercent = javaPercent;
+    }
+
+    public int getTestPercent() {
+        return testPercent;
+    }
+
+    /**
+     * Percentage of all sources which are Groovy test sources.
+     */
+    public void setTestPercent(final int testPercent) {
+        this.testPercent = testPercent;
+    }
+
+    public int getChainDepth() {
+        return chainDepth;
+    }
+
+    /**
+     * Length of the Groovy inheritance chains.
+     */
+    public void setChainDepth(final int chainDepth) {
+        if (chainDepth < 1) {
+            throw new IllegalArgumentException("Chain depth must be positive: " + chainDepth);
+        }
+        this.chainDepth = chainDepth;
+    }
+
+    public int getPackageSize() {
+        return packageSize;
+    }
+
+    /**
+     * Number of classes of each kind per package.
+     */
+    public void setPackageSize(final int packageSize) {
+        if (packageSize < 1) {
+            throw new IllegalArgumentException("Package size must be positive: " + packageSize);
+        }
+        this.packageSize = packageSize;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(final String encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Generates sources under <tt>src/main/groovy</tt>, <tt>src/main/java</tt> and <tt>src/test/groovy</tt> of the given project.
+     *
+     * @return  The number of files generated.
+     */
+    public int generate(final File basedir) throws IOException {
+        File mainGroovy = new File(basedir, "src/main/groovy");
+        File mainJava = new File(basedir, "src/main/java");
+        File testGroovy = new File(basedir, "src/test/groovy");
+
+        int tests = Math.max(1, files * testPercent / 100);
+        int main = Math.max(2, files - tests);
+        int javas = Math.max(1, main * javaPercent / 100);
+        int groovys = Math.max(1, main - javas);
+
+        int count = 0;
+
+        write(mainJava, ROOT_PACKAGE, "Marker", "java", marker());
+        write(mainJava, ROOT_PACKAGE, "Base", "java", base());
+        count += 2;
+
+        for (int i = 0; i < groovys; i++) {
+            write(mainGroovy, packageOf(i), "G" + i, "groovy", groovyClass(i, javas));
+            count++;
+        }
+
+        for (int i = 0; i < javas; i++) {
+            write(mainJava, packageOf(i), "J" + i, "java", javaClass(i, groovys));
+            count++;
+        }
+
+        for (int i = 0; i < tests; i++) {
+            write(testGroovy, packageOf(i), "G" + i + "Check", "groovy", groovyTest(i, groovys));
+            count++;
+        }
+
+        return count;
+    }
+
+    private String packageOf(final int index) {
+        return ROOT_PACKAGE + ".p" + (index / packageSize);
+    }
+
+    private String groovyName(final int index) {
+        return packageOf(index) + ".G" + index;
+    }
+
+    private String javaName(final int index) {
+        return packageOf(index) + ".J" + index;
+    }
+
+    private void write(final File root, final String pkg, final String name, final String ext, final String body) throws IOException {
+        File dir = new File(root, pkg.replace('.', File.separatorChar));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory: " + dir);
+        }
+
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(new File(dir, name + "." + ext)), encoding));
+        try {
+            out.println("package " + pkg + ";");
+            out.println();
+            out.print(body);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    private String marker() {
+        return "import java.lang.annotation.ElementType;\n" +
+            "import java.lang.annotation.Retention;\n" +
+            "import java.lang.annotation.RetentionPolicy;\n" +
+            "import java.lang.annotation.Target;\n" +
+            "\n" +
+            "/**\n" +
+            " * Marks a synthetic type.\n" +
+            " */\n" +
+            "@Retention(RetentionPolicy.RUNTIME)\n" +
+            "@Target({ ElementType.TYPE, ElementType.METHOD })\n" +
+            "public @interface Marker\n" +
+            "{\n" +
+            "    String value();\n" +
+            "\n" +
+            "    int level() default 0;\n" +
+            "}\n";
+    }
+
+    private String base() {
+        return "import java.util.ArrayList;\n" +
+            "import java.util.List;\n" +
+            "\n" +
+            "/**\n" +
+            " * Root of all synthetic inheritance chains.\n" +
+            " *\n" +
+            " * @param <T>  The key type.\n" +
+            " */\n" +
+            "public abstract class Base<T extends Comparable<T>>\n" +
+            "{\n" +
+            "    protected final List<Integer> items = new ArrayList<Integer>();\n" +
+            "\n" +
+            "    public abstract T key();\n" +
+            "\n" +
+            "    public List<Integer> values() {\n" +
+            "        return items;\n" +
+            "    }\n" +
+            "\n" +
+            "    public String describe() {\n" +
+            "        return getClass().getName() + \"[\" + key() + \"]\";\n" +
+            "    }\n" +
+            "}\n";
+    }
+
+    private String groovyClass(final int index, final int javas) {
+        int level = index % chainDepth;
+        String name = "G" + index;
+
+        StringBuffer buff = new StringBuffer();
+        buff.append("/**\n");
+        buff.append(" * Synthetic class ").append(index).append(", level ").append(level).append(" of its chain.\n");
+        buff.append(" *\n");
+        buff.append(" * @see ").append(javaName(index % javas)).append('\n');
+        buff.append(" */\n");
+        buff.append("@").append(ROOT_PACKAGE).append(".Marker(value = \"").append(name).append("\", level = ").append(level).append(")\n");
+        buff.append("class ").append(name).append('\n');
+
+        if (level == 0) {
+            buff.append("    extends ").append(ROOT_PACKAGE).append(".Base<String>\n");
+        }
+        else {
+            buff.append("    extends ").append(groovyName(index - 1)).append('\n');
+        }
+
+        buff.append("{\n");
+        buff.append("    /** Tag of this class. */\n");
+        buff.append("    String tag").append(index).append(" = '").append(name).append("'\n");
+        buff.append('\n');
+        buff.append("    Map<String, List<Integer>> counts").append(index).append(" = [:]\n");
+        buff.append('\n');
+
+        if (level == 0) {
+            buff.append("    String key() {\n");
+            buff.append("        return tag").append(index).append('\n');
+            buff.append("    }\n");
+            buff.append('\n');
+        }
+
+        buff.append("    /**\n");
+        buff.append("     * Returns the doubled values above the given limit.\n");
+        buff.append("     *\n");
+        buff.append("     * @param limit  The exclusive lower bound.\n");
+        buff.append("     */\n");
+        buff.append("    List<Integer> above").append(index).append("(int limit) {\n");
+        buff.append("        return values().findAll { it > limit }.collect { it * 2 }\n");
+        buff.append("    }\n");
+        buff.append('\n');
+        buff.append("    void count").append(index).append("(String key, int value) {\n");
+        buff.append("        def list = counts").append(index).append("[key]\n");
+        buff.append("        if (list == null) {\n");
+        buff.append("            list = []\n");
+        buff.append("            counts").append(index).append("[key] = list\n");
+        buff.append("        }\n");
+        buff.append("        list << value\n");
+        buff.append("        values() << value\n");
+        buff.append("    }\n");
+        buff.append('\n');
+        buff.append("    String describe() {\n");
+        buff.append("        return \"${tag").append(index).append("}/\" + super.describe()\n");
+        buff.append("    }\n");
+
+        if (index % 3 == 0) {
+            buff.append('\n');
+            buff.append("    @Deprecated\n");
+            buff.append("    String viaJava").append(index).append("() {\n");
+            buff.append("        return new ").append(javaName(index % javas)).append("().use()\n");
+            buff.append("    }\n");
+        }
+
+        buff.append("}\n");
+        return buff.toString();
+    }
+
+    private String javaClass(final int index, final int groovys) {
+        String target = groovyName(index % groovys);
+        String name = "J" + index;
+
+        StringBuffer buff = new StringBuffer();
+        buff.append("import java.util.List;\n");
+        buff.append('\n');
+        buff.append("/**\n");
+        buff.append(" * Synthetic Java class ").append(index).append(", which uses {@link ").append(target).append("}.\n");
+        buff.append(" */\n");
+        buff.append("@").append(ROOT_PACKAGE).append(".Marker(\"").append(name).append("\")\n");
+        buff.append("public class ").append(name).append('\n');
+        buff.append("{\n");
+        buff.append("    private final ").append(target).append(" delegate = new ").append(target).append("();\n");
+        buff.append('\n');
+        buff.append("    public String use() {\n");
+        buff.append("        return delegate.key();\n");
+        buff.append("    }\n");
+        buff.append('\n');
+        buff.append("    public List<Integer> values() {\n");
+        buff.append("        return delegate.values();\n");
+        buff.append("    }\n");
+        buff.append("}\n");
+        return buff.toString();
+    }
+
+    private String groovyTest(final int index, final int groovys) {
+        String target = groovyName(index % groovys);
+
+        StringBuffer buff = new StringBuffer();
+        buff.append("/**\n");
+        buff.append(" * Exercises {@link ").append(target).append("}.\n");
+        buff.append(" */\n");
+        buff.append("class G").append(index).append("Check\n");
+        buff.append("{\n");
+        buff.append("    void check() {\n");
+        buff.append("        def subject = new ").append(target).append("()\n");
+        buff.append("        (1..10).each { subject.values() << it }\n");
+        buff.append("        assert subject.describe()\n");
+        buff.append("        assert subject.values().inject(0) { sum, it -> sum + it } == 55\n");
+        buff.append("    }\n");
+        buff.append("}\n");
+        return buff.toString();
+    }
+
+    /**
+     * Usage: <tt>SyntheticProjectGenerator &lt;basedir&gt; [files]</tt>
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: " + SyntheticProjectGenerator.class.getName() + " <basedir> [files]");
+            System.exit(1);
+        }
+
+        SyntheticProjectGenerator generator = new SyntheticProjectGenerator();
+        if (args.length > 1) {
+            generator.setFiles(Integer.parseInt(args[1]));
+        }
+
+        int count = generator.generate(new File(args[0]));
+        System.out.println("Generated " + count + " files in: " + args[0]);
+    }
+}
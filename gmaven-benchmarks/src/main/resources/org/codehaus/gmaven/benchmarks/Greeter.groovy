@@ -0,0 +1,18 @@
+package sample
+
+class Greeter
+{
+    String name
+
+    List<String> greetings = []
+
+    String greet(String who) {
+        def text = "Hello ${who}, from ${name}"
+        greetings << text
+        return text
+    }
+
+    int count() {
+        return greetings.size()
+    }
+}
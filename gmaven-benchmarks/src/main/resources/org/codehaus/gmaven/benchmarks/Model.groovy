@@ -0,0 +1,33 @@
+package sample
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A small model to give the stub generator some javadocs, generics and properties to chew on.
+ */
+class Model
+    implements Comparable<Model>
+{
+    private static final AtomicInteger COUNTER = new AtomicInteger()
+
+    final int id = COUNTER.incrementAndGet()
+
+    String title
+
+    Map<String, List<Integer>> values = [:]
+
+    /**
+     * Adds a value under the given key.
+     */
+    void add(String key, int value) {
+        values.get(key, []) << value
+    }
+
+    int sum(String key) {
+        return values[key]?.sum() ?: 0
+    }
+
+    int compareTo(Model other) {
+        return id <=> other.id
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.feature;
+
+/**
+ * Receives callbacks about the components created by the features of a {@link Provider}.
+ *
+ * Register with {@link Provider#addListener}.  Callbacks happen on the thread doing the work, possibly
+ * concurrently, and must not throw; durations are in nanoseconds.
+ *
+ * @version $Id$
+ */
+public interface ComponentListener
+{
+    void componentCreated(Feature feature, Component component, long duration);
+
+    void componentCreateFailed(Feature feature, Throwable cause, long duration);
+
+    void operationBegin(Component component, String operation);
+
+    void operationEnd(Component component, String operation, long duration);
+
+    void operationFailed(Component component, String operation, Throwable cause, long duration);
+}
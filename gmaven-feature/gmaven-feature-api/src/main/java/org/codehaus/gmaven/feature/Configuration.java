@@ -31,32 +31,55 @@ import java.util.Set;
 /**
  * Container for configuration information as name-value pairs.
  *
+ * A configuration can be frozen with {@link #snapshot}; snapshots are immutable and keep their values in a trie
+ * keyed by the interned, dot separated segments of their names, so lookups and child views never concatenate
+ * keys.
+ *
+ * Merging a snapshot into a mutable configuration does not copy it: the snapshot becomes the frozen base of
+ * the mutable values, which are looked up first.  Components created with a snapshot context so get their
+ * values from the trie.
+ *
  * @version $Id$
  * @author <a href="mailto:jason@planet57.com">Jason Dillon</a>
  */
 public final class Configuration
     implements Cloneable
 {
-    private Map store;
+    /**
+     * Values of a mutable configuration, shared with its child views; null when frozen.
+     */
+    private Values values;
+
+    /**
+     * Values of a frozen configuration, and the node of this view; null when mutable.
+     */
+    private Node root;
+
+    private Node node;
 
     private String prefix;
 
     private Configuration parent;
 
-    private Configuration(final Map store, final String prefix) {
-        assert store != null;
+    private Configuration(final Values values, final Node root, final String prefix) {
+        assert values != null || root != null;
         // prefix can be null
 
-        this.store = store;
+        this.values = values;
+        this.root = root;
         this.prefix = prefix;
+
+        if (root != null) {
+            node = prefix == null ? root : root.resolve(prefix);
+        }
     }
 
     public Configuration() {
-        this(new HashMap(), null);
+        this(new Values(), null, null);
     }
 
     public Configuration(final Configuration config) {
-        this(config.store, config.prefix);
+        this(config.values, config.root, config.prefix);
     }
 
     /** @noinspection CloneDoesntDeclareCloneNotSupportedException */
@@ -82,24 +105,34 @@ public final class Configuration
         return name;
     }
 
+    private Object lookup(final String name) {
+        if (node != null) {
+            return node.resolve(name).value;
+        }
+
+        return values.get(key(name));
+    }
+
     public boolean contains(final String name) {
         assert name != null;
 
-        return store.containsKey(key(name));
+        return lookup(name) != null;
     }
 
     public Object set(final String name, final Object value) {
         assert name != null;
         assert value != null;
 
-        return store.put(key(name), value);
+        ensureMutable();
+
+        return values.put(key(name), value);
     }
 
     public Object get(final String name, final Object defaultValue) {
         assert name != null;
         // defaultValue can be null
 
-        Object value = store.get(key(name));
+        Object value = lookup(name);
 
         if (value == null) {
             value =  defaultValue;
@@ -115,7 +148,9 @@ public final class Configuration
     public Object remove(final String name) {
         assert name != null;
 
-        return store.remove(key(name));
+        ensureMutable();
+
+        return values.remove(key(name));
     }
 
     //
@@ -126,28 +161,36 @@ public final class Configuration
     public void merge(final Configuration config) {
         assert config != null;
 
-        store.putAll(config.store);
+        ensureMutable();
+
+        if (config.root != null) {
+            values.overlay(config.root);
+        }
+        else if (config.values != values) {
+            if (config.values.base != null) {
+                values.overlay(config.values.base);
+            }
+            values.store.putAll(config.values.store);
+        }
     }
 
     public void clear() {
-        store.clear();
+        ensureMutable();
+
+        values.store.clear();
+        values.base = null;
     }
 
     public int size() {
-        if (prefix == null) {
-            return store.size();
+        if (node != null) {
+            return node.entries().size();
         }
 
-        int c = 0;
-
-        for (Iterator iter=store.keySet().iterator(); iter.hasNext();) {
-            String key = (String) iter.next();
-            if (key.startsWith(prefix)) {
-                c++;
-            }
+        if (values.base == null && prefix == null) {
+            return values.store.size();
         }
 
-        return c;
+        return names().size();
     }
 
     public boolean isEmpty() {
@@ -155,17 +198,41 @@ public final class Configuration
     }
 
     public Set names() {
+        if (node != null) {
+            return node.entries().keySet();
+        }
+
+        if (values.base != null) {
+            Node base = prefix == null ? values.base : values.base.resolve(prefix);
+
+            if (values.store.isEmpty()) {
+                return base.entries().keySet();
+            }
+            if (!base.entries().isEmpty()) {
+                Set names = new HashSet(base.entries().keySet());
+                names.addAll(storeNames());
+                return Collections.unmodifiableSet(names);
+            }
+        }
+
+        return storeNames();
+    }
+
+    private Set storeNames() {
+        Map store = values.store;
+
         if (prefix == null) {
             return Collections.unmodifiableSet(store.keySet());
         }
 
         Set matching = new HashSet();
         int l = prefix.length();
+        String keyPrefix = prefix + ".";
 
         for (Iterator iter=store.keySet().iterator(); iter.hasNext();) {
             String key = (String) iter.next();
 
-            if (key.startsWith(prefix + ".")) {
+            if (key.startsWith(keyPrefix)) {
                 // Strip off the prefix
                 key = key.substring(l + 1, key.length());
 
@@ -202,6 +269,10 @@ public final class Configuration
             child.prefix = prefix;
         }
 
+        if (root != null) {
+            child.node = root.resolve(child.prefix);
+        }
+
         return child;
     }
 
@@ -211,6 +282,34 @@ public final class Configuration
         return child(feature.key());
     }
 
+    //
+    // Snapshots
+    //
+
+    public boolean isFrozen() {
+        return root != null;
+    }
+
+    private void ensureMutable() {
+        if (root != null) {
+            throw new ConfigurationException("Configuration is frozen");
+        }
+    }
+
+    /**
+     * Returns an immutable copy of this configuration, with the same prefix; frozen configurations return themselves.
+     */
+    public Configuration snapshot() {
+        if (root != null) {
+            return this;
+        }
+
+        Configuration snapshot = new Configuration(null, values.freeze(), prefix);
+        snapshot.parent = parent;
+
+        return snapshot;
+    }
+
     //
     // Typed Access
     //
@@ -318,6 +417,257 @@ public final class Configuration
     }
 
     public String toString() {
-        return this.store.toString();
+        if (root != null) {
+            return root.entries().toString();
+        }
+
+        return values.toString();
+    }
+
+    //
+    // Values
+    //
+
+    /**
+     * Values of a mutable configuration: its own, over an optional frozen base which they override.
+     */
+    private static final class Values
+    {
+        Map store = new HashMap();
+
+        Node base;
+
+        Object get(final String key) {
+            Object value = store.get(key);
+
+            if (value == null && base != null) {
+                value = base.resolve(key).value;
+            }
+
+            return value;
+        }
+
+        Object put(final String key, final Object value) {
+            Object previous = store.put(key, value);
+
+            if (previous == null && base != null) {
+                previous = base.resolve(key).value;
+            }
+
+            return previous;
+        }
+
+        Object remove(final String key) {
+            // The base is immutable, so a value in it can only be removed from a copy
+            if (base != null && base.resolve(key).value != null) {
+                Map copy = new HashMap(base.entries());
+                copy.putAll(store);
+                store = copy;
+                base = null;
+            }
+
+            return store.remove(key);
+        }
+
+        /**
+         * Adds the given frozen values over these, sharing them instead of copying.
+         */
+        void overlay(final Node overrides) {
+            for (Iterator iter = store.keySet().iterator(); iter.hasNext();) {
+                if (overrides.resolve((String) iter.next()).value != null) {
+                    iter.remove();
+                }
+            }
+
+            base = base == null ? overrides : Node.merge(base, overrides);
+        }
+
+        Node freeze() {
+            if (base == null) {
+                return Node.build(store);
+            }
+            if (store.isEmpty()) {
+                return base;
+            }
+            return Node.merge(base, Node.build(store));
+        }
+
+        public String toString() {
+            if (base == null) {
+                return store.toString();
+            }
+
+            Map all = new HashMap(base.entries());
+            all.putAll(store);
+            return all.toString();
+        }
+    }
+
+    //
+    // Node
+    //
+
+    /**
+     * Immutable trie node of a frozen configuration.
+     */
+    private static final class Node
+    {
+        static final Node EMPTY = new Node(null, Collections.EMPTY_MAP);
+
+        /**
+         * Value for the name ending at this node, or null.
+         */
+        final Object value;
+
+        /**
+         * Interned name segment -> Node.
+         */
+        final Map children;
+
+        /**
+         * Relative name -> value for this whole branch, flattened on first use.
+         */
+        private Map entries;
+
+        Node(final Object value, final Map children) {
+            this.value = value;
+            this.children = children;
+        }
+
+        Node child(final String segment) {
+            Node child = (Node) children.get(segment);
+            return child != null ? child : EMPTY;
+        }
+
+        /**
+         * Resolves a dotted name relative to this node; missing names resolve to {@link #EMPTY}.
+         */
+        Node resolve(final String name) {
+            Node current = this;
+            int start = 0;
+
+            while (current != EMPTY) {
+                int dot = name.indexOf('.', start);
+
+                if (dot == -1) {
+                    return current.child(name.substring(start));
+                }
+
+                current = current.child(name.substring(start, dot));
+                start = dot + 1;
+            }
+
+            return EMPTY;
+        }
+
+        synchronized Map entries() {
+            if (entries == null) {
+                Map map = new HashMap();
+                flatten(null, map);
+                entries = Collections.unmodifiableMap(map);
+            }
+
+            return entries;
+        }
+
+        private void flatten(final String path, final Map map) {
+            if (value != null && path != null) {
+                map.put(path, value);
+            }
+
+            for (Iterator iter = children.entrySet().iterator(); iter.hasNext();) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                String segment = (String) entry.getKey();
+
+                ((Node) entry.getValue()).flatten(path == null ? segment : path + "." + segment, map);
+            }
+        }
+
+        static Node build(final Map store) {
+            Builder root = new Builder();
+
+            for (Iterator iter = store.entrySet().iterator(); iter.hasNext();) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                String name = (String) entry.getKey();
+
+                Builder current = root;
+                int start = 0;
+                int dot;
+
+                while ((dot = name.indexOf('.', start)) != -1) {
+                    current = current.child(name.substring(start, dot));
+                    start = dot + 1;
+                }
+
+                current.child(name.substring(start)).value = entry.getValue();
+            }
+
+            return root.build();
+        }
+
+        /**
+         * Returns a node with the values of base overridden by overlay, sharing every branch only one of them has.
+         */
+        static Node merge(final Node base, final Node overlay) {
+            if (overlay == EMPTY || overlay == base) {
+                return base;
+            }
+            if (base == EMPTY) {
+                return overlay;
+            }
+
+            Map children = new HashMap(base.children);
+
+            for (Iterator iter = overlay.children.entrySet().iterator(); iter.hasNext();) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                Object segment = entry.getKey();
+
+                Node existing = (Node) children.get(segment);
+                Node child = (Node) entry.getValue();
+
+                children.put(segment, existing == null ? child : merge(existing, child));
+            }
+
+            Object value = overlay.value != null ? overlay.value : base.value;
+
+            return new Node(value, Collections.unmodifiableMap(children));
+        }
+    }
+
+    /**
+     * Mutable node used while building a snapshot.
+     */
+    private static final class Builder
+    {
+        Object value;
+
+        final Map children = new HashMap();
+
+        Builder child(final String segment) {
+            String key = segment.intern();
+
+            Builder child = (Builder) children.get(key);
+            if (child == null) {
+                child = new Builder();
+                children.put(key, child);
+            }
+
+            return child;
+        }
+
+        Node build() {
+            if (children.isEmpty()) {
+                return new Node(value, Collections.EMPTY_MAP);
+            }
+
+            Map built = new HashMap(children.size());
+
+            for (Iterator iter = children.entrySet().iterator(); iter.hasNext();) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                built.put(entry.getKey(), ((Builder) entry.getValue()).build());
+            }
+
+            return new Node(value, Collections.unmodifiableMap(built));
+        }
     }
-}
\ No newline at end of file
+}
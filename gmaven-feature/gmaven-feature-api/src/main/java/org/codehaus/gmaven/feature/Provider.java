@@ -43,4 +43,10 @@ public interface Provider
     Feature feature(String key);
 
     Feature feature(Class key);
+
+    void addListener(ComponentListener listener);
+
+    void removeListener(ComponentListener listener);
+
+    ComponentListener[] listeners();
 }
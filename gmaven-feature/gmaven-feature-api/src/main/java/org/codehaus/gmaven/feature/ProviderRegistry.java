@@ -34,6 +34,15 @@ public interface ProviderRegistry
 
     Provider register(Provider provider);
 
+    /**
+     * Register the provider unless one is already registered for its key.
+     *
+     * @return  The provider already registered for the key, or null if the given provider was registered.
+     *
+     * @since 1.6
+     */
+    Provider registerIfAbsent(Provider provider);
+
     // Provider register(String key, Provider provider);
 
     Provider deregister(String key);
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.feature.util;
+
+import java.lang.reflect.Array;
+
+/**
+ * Copy-on-write updates of listener arrays, so listeners can be read from a volatile field without locking.
+ *
+ * Callers serialize their updates themselves and publish the returned array.
+ *
+ * @version $Id$
+ */
+public final class ListenerArrays
+{
+    private ListenerArrays() {
+        // empty
+    }
+
+    private static int indexOf(final Object[] listeners, final Object listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of the given array with the listener appended, or the array itself if it holds the listener.
+     */
+    public static Object[] add(final Object[] listeners, final Object listener) {
+        assert listeners != null;
+        assert listener != null;
+
+        if (indexOf(listeners, listener) != -1) {
+            return listeners;
+        }
+
+        Object[] copy = (Object[]) Array.newInstance(listeners.getClass().getComponentType(), listeners.length + 1);
+        System.arraycopy(listeners, 0, copy, 0, listeners.length);
+        copy[listeners.length] = listener;
+
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the given array without the listener, or the array itself if it does not hold the listener.
+     */
+    public static Object[] remove(final Object[] listeners, final Object listener) {
+        assert listeners != null;
+        assert listener != null;
+
+        int index = indexOf(listeners, listener);
+        if (index == -1) {
+            return listeners;
+        }
+
+        Object[] copy = (Object[]) Array.newInstance(listeners.getClass().getComponentType(), listeners.length - 1);
+        System.arraycopy(listeners, 0, copy, 0, index);
+        System.arraycopy(listeners, index + 1, copy, index, listeners.length - index - 1);
+
+        return copy;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.feature;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link Configuration} class.
+ *
+ * @version $Id$
+ */
+public class ConfigurationTest
+    extends TestCase
+{
+    private Configuration config;
+
+    protected void setUp() throws Exception {
+        config = new Configuration();
+        config.set("a", "1");
+        config.set("b.c", "2");
+        config.set("b.d", "3");
+    }
+
+    private static Set set(final String[] names) {
+        Set set = new HashSet();
+        for (int i = 0; i < names.length; i++) {
+            set.add(names[i]);
+        }
+        return set;
+    }
+
+    public void testMutableChild() throws Exception {
+        Configuration child = config.child("b");
+
+        assertEquals("2", child.get("c"));
+        assertEquals(2, child.size());
+        assertEquals(set(new String[] { "c", "d" }), child.names());
+
+        child.set("e", "4");
+        assertEquals("4", config.get("b.e"));
+    }
+
+    public void testSnapshot() throws Exception {
+        Configuration snapshot = config.snapshot();
+
+        assertTrue(snapshot.isFrozen());
+        assertSame(snapshot, snapshot.snapshot());
+        assertEquals("1", snapshot.get("a"));
+        assertTrue(snapshot.contains("b.c"));
+        assertFalse(snapshot.contains("b"));
+        assertEquals(3, snapshot.size());
+
+        Configuration child = snapshot.child("b");
+        assertEquals("3", child.get("d"));
+        assertEquals(set(new String[] { "c", "d" }), child.names());
+
+        // Later changes are not seen by the snapshot
+        config.set("a", "changed");
+        assertEquals("1", snapshot.get("a"));
+    }
+
+    public void testSnapshotIsImmutable() throws Exception {
+        Configuration snapshot = config.snapshot();
+
+        try {
+            snapshot.set("x", "y");
+            fail();
+        }
+        catch (ConfigurationException expected) {
+            // expected
+        }
+
+        try {
+            snapshot.merge(new Configuration());
+            fail();
+        }
+        catch (ConfigurationException expected) {
+            // expected
+        }
+    }
+
+    public void testMergeSnapshot() throws Exception {
+        Configuration target = new Configuration();
+        target.set("a", "0");
+        target.set("x", "9");
+        Configuration child = target.child("b");
+
+        target.merge(config.snapshot());
+
+        // The merged values override, the others remain
+        assertEquals("1", target.get("a"));
+        assertEquals("9", target.get("x"));
+        assertEquals("2", child.get("c"));
+        assertEquals(4, target.size());
+        assertEquals(set(new String[] { "a", "b.c", "b.d", "x" }), target.names());
+        assertEquals(set(new String[] { "c", "d" }), child.names());
+
+        // Values set afterwards override the merged ones
+        assertEquals("1", target.set("a", "5"));
+        assertEquals("5", target.get("a"));
+        assertEquals("5", target.snapshot().get("a"));
+
+        // Merged values can be removed
+        assertEquals("2", target.remove("b.c"));
+        assertFalse(target.contains("b.c"));
+        assertEquals("3", target.get("b.d"));
+        assertEquals(3, target.size());
+    }
+
+    public void testMergeLayeredConfiguration() throws Exception {
+        Configuration layered = new Configuration();
+        layered.merge(config.snapshot());
+        layered.set("e", "5");
+
+        Configuration target = new Configuration();
+        target.set("b.c", "0");
+        target.merge(layered);
+
+        assertEquals("2", target.get("b.c"));
+        assertEquals("5", target.get("e"));
+        assertEquals(4, target.size());
+
+        target.clear();
+        assertTrue(target.isEmpty());
+        assertNull(target.get("a"));
+    }
+}
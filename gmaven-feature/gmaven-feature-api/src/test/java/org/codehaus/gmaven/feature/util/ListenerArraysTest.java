@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.feature.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link ListenerArrays} class.
+ *
+ * @version $Id$
+ */
+public class ListenerArraysTest
+    extends TestCase
+{
+    private static final String[] NONE = {};
+
+    public void testAdd() throws Exception {
+        Object[] listeners = ListenerArrays.add(NONE, "a");
+        listeners = ListenerArrays.add(listeners, "b");
+
+        assertTrue(listeners instanceof String[]);
+        assertEquals(2, listeners.length);
+        assertEquals("a", listeners[0]);
+        assertEquals("b", listeners[1]);
+        assertEquals(0, NONE.length);
+    }
+
+    public void testAddTwiceReturnsSameArray() throws Exception {
+        Object[] listeners = ListenerArrays.add(NONE, "a");
+
+        assertSame(listeners, ListenerArrays.add(listeners, "a"));
+    }
+
+    public void testRemove() throws Exception {
+        String[] listeners = { "a", "b", "c" };
+
+        Object[] removed = ListenerArrays.remove(listeners, "b");
+
+        assertTrue(removed instanceof String[]);
+        assertEquals(2, removed.length);
+        assertEquals("a", removed[0]);
+        assertEquals("c", removed[1]);
+
+        // The original is never changed, readers may still be iterating over it
+        assertEquals("b", listeners[1]);
+
+        assertEquals(0, ListenerArrays.remove(new String[] { "a" }, "a").length);
+    }
+
+    public void testRemoveMissingReturnsSameArray() throws Exception {
+        String[] listeners = { "a" };
+
+        assertSame(listeners, ListenerArrays.remove(listeners, "b"));
+    }
+}
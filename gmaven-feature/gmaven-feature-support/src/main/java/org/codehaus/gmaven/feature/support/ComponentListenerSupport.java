@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.feature.support;
+
+import org.codehaus.gmaven.feature.Component;
+import org.codehaus.gmaven.feature.ComponentListener;
+import org.codehaus.gmaven.feature.Feature;
+
+/**
+ * Adapter for {@link ComponentListener} implementations which only care about some of the callbacks.
+ *
+ * @version $Id$
+ */
+public abstract class ComponentListenerSupport
+    implements ComponentListener
+{
+    public void componentCreated(final Feature feature, final Component component, final long duration) {
+        // empty
+    }
+
+    public void componentCreateFailed(final Feature feature, final Throwable cause, final long duration) {
+        // empty
+    }
+
+    public void operationBegin(final Component component, final String operation) {
+        // empty
+    }
+
+    public void operationEnd(final Component component, final String operation, final long duration) {
+        // empty
+    }
+
+    public void operationFailed(final Component component, final String operation, final Throwable cause, final long duration) {
+        // empty
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.feature.support;
+
+import org.codehaus.gmaven.feature.Component;
+import org.codehaus.gmaven.feature.ComponentListener;
+import org.codehaus.gmaven.feature.Feature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches callbacks to {@link ComponentListener}s, so a failing listener never fails the component.
+ *
+ * @version $Id$
+ */
+final class ComponentListeners
+{
+    static final ComponentListener[] NONE = {};
+
+    private static final Logger log = LoggerFactory.getLogger(ComponentListeners.class);
+
+    private ComponentListeners() {
+        // empty
+    }
+
+    private static void failed(final ComponentListener listener, final RuntimeException e) {
+        log.warn("Component listener failed: " + listener, e);
+    }
+
+    static void componentCreated(final ComponentListener[] listeners, final Feature feature, final Component component, final long duration) {
+        for (int i = 0; i < listeners.length; i++) {
+            try {
+                listeners[i].componentCreated(feature, component, duration);
+            }
+            catch (RuntimeException e) {
+                failed(listeners[i], e);
+            }
+        }
+    }
+
+    static void componentCreateFailed(final ComponentListener[] listeners, final Feature feature, final Throwable cause, final long duration) {
+        for (int i = 0; i < listeners.length; i++) {
+            try {
+                listeners[i].componentCreateFailed(feature, cause, duration);
+            }
+            catch (RuntimeException e) {
+                failed(listeners[i], e);
+            }
+        }
+    }
+
+    static void operationBegin(final ComponentListener[] listeners, final Component component, final String operation) {
+        for (int i = 0; i < listeners.length; i++) {
+            try {
+                listeners[i].operationBegin(component, operation);
+            }
+            catch (RuntimeException e) {
+                failed(listeners[i], e);
+            }
+        }
+    }
+
+    static void operationEnd(final ComponentListener[] listeners, final Component component, final String operation, final long duration) {
+        for (int i = 0; i < listeners.length; i++) {
+            try {
+                listeners[i].operationEnd(component, operation, duration);
+            }
+            catch (RuntimeException e) {
+                failed(listeners[i], e);
+            }
+        }
+    }
+
+    static void operationFailed(final ComponentListener[] listeners, final Component component, final String operation, final Throwable cause, final long duration) {
+        for (int i = 0; i < listeners.length; i++) {
+            try {
+                listeners[i].operationFailed(component, operation, cause, duration);
+            }
+            catch (RuntimeException e) {
+                failed(listeners[i], e);
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.codehaus.gmaven.feature.support;
 
 import org.codehaus.gmaven.feature.Component;
+import org.codehaus.gmaven.feature.ComponentListener;
 import org.codehaus.gmaven.feature.Configuration;
 import org.codehaus.gmaven.feature.Feature;
 import org.slf4j.Logger;
@@ -56,4 +57,41 @@ public class ComponentSupport
     public Configuration config() {
         return config;
     }
+
+    //
+    // Operation callbacks for ComponentListeners
+    //
+
+    private ComponentListener[] listeners() {
+        if (feature instanceof FeatureSupport) {
+            return ((FeatureSupport) feature).listeners();
+        }
+
+        return ComponentListeners.NONE;
+    }
+
+    /**
+     * Tells the listeners an operation is starting.
+     *
+     * @return  The start time, to pass to {@link #endOperation} or {@link #failOperation}.
+     */
+    protected long beginOperation(final String operation) {
+        assert operation != null;
+
+        ComponentListeners.operationBegin(listeners(), this, operation);
+
+        return System.nanoTime();
+    }
+
+    protected void endOperation(final String operation, final long start) {
+        assert operation != null;
+
+        ComponentListeners.operationEnd(listeners(), this, operation, System.nanoTime() - start);
+    }
+
+    protected void failOperation(final String operation, final long start, final Throwable cause) {
+        assert operation != null;
+
+        ComponentListeners.operationFailed(listeners(), this, operation, cause, System.nanoTime() - start);
+    }
 }
\ No newline at end of file
@@ -17,6 +17,7 @@
 package org.codehaus.gmaven.feature.support;
 
 import org.codehaus.gmaven.feature.Component;
+import org.codehaus.gmaven.feature.ComponentListener;
 import org.codehaus.gmaven.feature.Configuration;
 import org.codehaus.gmaven.feature.Feature;
 import org.codehaus.gmaven.feature.FeatureException;
@@ -41,7 +42,7 @@ public abstract class FeatureSupport
 
     protected final boolean supported;
 
-    protected Provider provider;
+    protected volatile Provider provider;
 
     protected FeatureSupport(final String key, final boolean supported) {
         assert key != null;
@@ -105,6 +106,9 @@ public abstract class FeatureSupport
         final ClassLoader tcl = Thread.currentThread().getContextClassLoader();
         Thread.currentThread().setContextClassLoader(provider().getClass().getClassLoader());
 
+        ComponentListener[] listeners = listeners();
+        long start = System.nanoTime();
+
         try {
             Component component = doCreate();
 
@@ -112,8 +116,18 @@ public abstract class FeatureSupport
             Configuration c = component.config();
             c.merge(config());
 
+            ComponentListeners.componentCreated(listeners, this, component, System.nanoTime() - start);
+
             return component;
         }
+        catch (Exception e) {
+            ComponentListeners.componentCreateFailed(listeners, this, e, System.nanoTime() - start);
+            throw e;
+        }
+        catch (Error e) {
+            ComponentListeners.componentCreateFailed(listeners, this, e, System.nanoTime() - start);
+            throw e;
+        }
         finally {
             // Reset back to the previous TCL
             Thread.currentThread().setContextClassLoader(tcl);
@@ -137,7 +151,26 @@ public abstract class FeatureSupport
         this.provider = provider;
     }
 
-    protected synchronized Provider provider() {
+    /**
+     * Returns the component listeners of the registered provider, if there is one; called for every component,
+     * so this only reads volatile fields.
+     */
+    /* package */ ComponentListener[] listeners() {
+        Provider provider = this.provider;
+
+        if (provider instanceof ProviderSupport) {
+            return ((ProviderSupport) provider).listenersForDispatch();
+        }
+        else if (provider != null) {
+            return provider.listeners();
+        }
+
+        return ComponentListeners.NONE;
+    }
+
+    protected Provider provider() {
+        Provider provider = this.provider;
+
         if (provider == null) {
             throw new IllegalStateException("Provider has not been registered with feature: " + this);
         }
@@ -16,12 +16,14 @@
 
 package org.codehaus.gmaven.feature.support;
 
+import org.codehaus.gmaven.feature.ComponentListener;
 import org.codehaus.gmaven.feature.Configuration;
 import org.codehaus.gmaven.feature.Feature;
 import org.codehaus.gmaven.feature.FeatureException;
 import org.codehaus.gmaven.feature.Provider;
 import org.codehaus.gmaven.feature.ProviderException;
 import org.codehaus.gmaven.feature.Version;
+import org.codehaus.gmaven.feature.util.ListenerArrays;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +54,11 @@ public abstract class ProviderSupport
 
     protected Map features;
 
+    /**
+     * Copied on write, as it is read for every component created and operation run.
+     */
+    private volatile ComponentListener[] listeners = ComponentListeners.NONE;
+
     protected ProviderSupport(final String key, final Configuration config) {
         assert key != null;
         assert config != null;
@@ -158,6 +165,25 @@ public abstract class ProviderSupport
         return feature(key.getName());
     }
 
+    public synchronized void addListener(final ComponentListener listener) {
+        listeners = (ComponentListener[]) ListenerArrays.add(listeners, listener);
+    }
+
+    public synchronized void removeListener(final ComponentListener listener) {
+        listeners = (ComponentListener[]) ListenerArrays.remove(listeners, listener);
+    }
+
+    public ComponentListener[] listeners() {
+        return (ComponentListener[]) listeners.clone();
+    }
+
+    /**
+     * Returns the listeners without copying, for dispatch.
+     */
+    /* package */ ComponentListener[] listenersForDispatch() {
+        return listeners;
+    }
+
     //
     // Common Helpers
     //
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.feature.support;
+
+import junit.framework.TestCase;
+import org.codehaus.gmaven.feature.Component;
+import org.codehaus.gmaven.feature.Feature;
+import org.codehaus.gmaven.feature.Version;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link FeatureSupport} class.
+ *
+ * @version $Id$
+ */
+public class FeatureSupportTest
+    extends TestCase
+{
+    private final List failures = new ArrayList();
+
+    private ProviderImpl provider;
+
+    protected void setUp() throws Exception {
+        provider = new ProviderImpl();
+        provider.addListener(new ComponentListenerSupport()
+        {
+            public void componentCreateFailed(final Feature feature, final Throwable cause, final long duration) {
+                failures.add(cause);
+            }
+        });
+    }
+
+    public void testReportsExceptions() throws Exception {
+        IllegalStateException cause = new IllegalStateException();
+        FeatureImpl feature = new FeatureImpl(cause);
+        feature.register(provider);
+
+        try {
+            feature.create();
+            fail();
+        }
+        catch (IllegalStateException e) {
+            assertSame(cause, e);
+        }
+
+        assertEquals(Collections.singletonList(cause), failures);
+    }
+
+    public void testReportsErrors() throws Exception {
+        AssertionError cause = new AssertionError();
+        FeatureImpl feature = new FeatureImpl(cause);
+        feature.register(provider);
+
+        try {
+            feature.create();
+            fail();
+        }
+        catch (AssertionError e) {
+            assertSame(cause, e);
+        }
+
+        assertEquals(Collections.singletonList(cause), failures);
+    }
+
+    private static class FeatureImpl
+        extends FeatureSupport
+    {
+        private final Throwable failure;
+
+        FeatureImpl(final Throwable failure) {
+            super("test");
+            this.failure = failure;
+        }
+
+        protected Component doCreate() throws Exception {
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw (Exception) failure;
+        }
+    }
+
+    private static class ProviderImpl
+        extends ProviderSupport
+    {
+        ProviderImpl() {
+            super("test");
+        }
+
+        protected Version detectVersion() {
+            return null;
+        }
+
+        protected Map detectFeatures() {
+            return Collections.EMPTY_MAP;
+        }
+    }
+}
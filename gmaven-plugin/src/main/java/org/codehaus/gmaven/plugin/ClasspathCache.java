@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches classpath assembly for the mojos of a build.
+ *
+ * Canonical paths and URLs are kept per path, assembled classpaths per project and include mode,
+ * and resolved user artifacts per project and coordinates.
+ *
+ * Embedded and daemon builds keep the plugin, and so this singleton, across builds; everything cached
+ * is dropped once a mojo of another session executes, so the cache only grows with the current build.
+ *
+ * @version $Id$
+ *
+ * @since 1.6
+ */
+public class ClasspathCache
+{
+    private final Map canonicalPaths = new ConcurrentHashMap();
+
+    private final Map urls = new ConcurrentHashMap();
+
+    private final Map classpaths = new ConcurrentHashMap();
+
+    private final Map artifactFiles = new ConcurrentHashMap();
+
+    /**
+     * Identifies the session the cached values belong to.
+     */
+    private Object session;
+
+    /**
+     * Binds the cache to the given session, clearing it when the session differs from the last one.
+     *
+     * Sessions are identified by their start time, which the per module copies of a parallel build share.
+     */
+    public void setSession(final MavenSession session) {
+        assert session != null;
+
+        setSessionKey(session.getStartTime() != null ? (Object) session.getStartTime() : session);
+    }
+
+    /* package */ synchronized void setSessionKey(final Object key) {
+        assert key != null;
+
+        if (!key.equals(this.session)) {
+            clear();
+            this.session = key;
+        }
+    }
+
+    public synchronized void clear() {
+        canonicalPaths.clear();
+        urls.clear();
+        classpaths.clear();
+        artifactFiles.clear();
+    }
+
+    public String getCanonicalPath(final File file) throws IOException {
+        assert file != null;
+
+        String path = file.getPath();
+        String canonical = (String) canonicalPaths.get(path);
+
+        if (canonical == null) {
+            canonical = file.getCanonicalPath();
+            canonicalPaths.put(path, canonical);
+        }
+
+        return canonical;
+    }
+
+    public URL getURL(final String path) throws MalformedURLException {
+        assert path != null;
+
+        URL url = (URL) urls.get(path);
+
+        if (url == null) {
+            url = new File(path).toURI().toURL();
+            urls.put(path, url);
+        }
+
+        return url;
+    }
+
+    /**
+     * Returns the classpath assembled earlier for the given project and mode, if it was assembled from the same inputs.
+     *
+     * @param inputs    The raw elements the classpath is assembled from
+     */
+    public List getClasspath(final MavenProject project, final String mode, final List inputs) {
+        assert inputs != null;
+
+        Entry entry = (Entry) classpaths.get(key(project, mode));
+
+        if (entry != null && entry.inputs.equals(inputs)) {
+            return entry.classpath;
+        }
+
+        return null;
+    }
+
+    public List putClasspath(final MavenProject project, final String mode, final List inputs, final List classpath) {
+        assert inputs != null;
+        assert classpath != null;
+
+        Entry entry = new Entry(inputs, Collections.unmodifiableList(classpath));
+        classpaths.put(key(project, mode), entry);
+
+        return entry.classpath;
+    }
+
+    public File getArtifactFile(final MavenProject project, final String coordinates) {
+        assert coordinates != null;
+
+        return (File) artifactFiles.get(key(project, coordinates));
+    }
+
+    public void putArtifactFile(final MavenProject project, final String coordinates, final File file) {
+        assert coordinates != null;
+        assert file != null;
+
+        artifactFiles.put(key(project, coordinates), file);
+    }
+
+    private String key(final MavenProject project, final String name) {
+        assert project != null;
+        assert name != null;
+
+        return project.getId() + "#" + name;
+    }
+
+    private static class Entry
+    {
+        final List inputs;
+
+        final List classpath;
+
+        Entry(final List inputs, final List classpath) {
+            this.inputs = inputs;
+            this.classpath = classpath;
+        }
+    }
+}
@@ -19,98 +19,189 @@ package org.codehaus.gmaven.plugin;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.maven.project.MavenProject;
 
 /**
  * Support for communication between stub generation and compilation.
  *
+ * State is kept per project, and projects of a parallel build never contend with each other.
+ * Forced sources are handed out as immutable sorted snapshots of those which exist.  Snapshots are only rebuilt,
+ * and only then checked against the file system, after sources were added or {@link #refreshForcedSources} was
+ * called; compile goals call it once as they start, to see stubs created or deleted since the last goal.
+ *
  * @author <a href="mailto:jason@planet57.com">Jason Dillon</a>
  * @version $Id$
  */
 public class CompileState
 {
-    private Map forceCompile = new HashMap();
+    /**
+     * Project base directory -> ProjectState, so each directory is only checked and resolved once.
+     */
+    private final ConcurrentMap basedirs = new ConcurrentHashMap();
+
+    /**
+     * Canonical project base directory -> ProjectState.
+     */
+    private final ConcurrentMap projects = new ConcurrentHashMap();
+
+    public void addForcedCompilationSource(final MavenProject project, final File file) {
+        state(project).forceCompile.add(file);
+    }
 
-    private Map forceCompileTest = new HashMap();
+    public Set getForcedCompilationSources(final MavenProject project) {
+        return state(project).forceCompile.snapshot();
+    }
 
-    public synchronized void addForcedCompilationSource(final MavenProject project, final File file) {
-        String projectKey = projectKey(project);
+    public void addForcedCompilationTestSource(final MavenProject project, final File file) {
+        state(project).forceCompileTest.add(file);
+    }
 
-        if (!forceCompile.containsKey(projectKey)) {
-            forceCompile.put(projectKey, new TreeSet());
-        }
+    public Set getForcedCompilationTestSources(final MavenProject project) {
+        return state(project).forceCompileTest.snapshot();
+    }
 
-        ((Set) forceCompile.get(projectKey)).add(file);
+    /**
+     * Check which forced sources of the given project exist again when they are next read.
+     */
+    public void refreshForcedSources(final MavenProject project) {
+        ProjectState state = state(project);
+        state.forceCompile.refresh();
+        state.forceCompileTest.refresh();
     }
 
-    public synchronized Set getForcedCompilationSources(final MavenProject project) {
-        String projectKey = projectKey(project);
+    /**
+     * Returns the scan of a source directory for the given project, reusing the scan of an earlier goal
+     * with the same directory and patterns unless files were added or removed since.
+     */
+    public SourceScan getSourceScan(final MavenProject project, final File basedir, final Set includes, final Set excludes) throws Exception {
+        assert basedir != null;
+        assert includes != null;
+        assert excludes != null;
 
-        if (forceCompile.containsKey(projectKey)) {
-            Set files = new TreeSet();
+        Map scans = state(project).sourceScans;
+        String key = basedir.getCanonicalPath() + "|" + new TreeSet(includes) + "|" + new TreeSet(excludes);
 
-            for (Iterator i = ((Set) forceCompile.get(projectKey)).iterator(); i.hasNext();) {
-                File file = (File) i.next();
+        SourceScan scan = (SourceScan) scans.get(key);
 
-                if (file.isFile()) {
-                    files.add(file);
-                }
-            }
-
-            return Collections.unmodifiableSet(files);
-        }
-        else {
-            return Collections.unmodifiableSet(new TreeSet());
+        if (scan != null && scan.isCurrent()) {
+            return scan;
         }
+
+        scan = scan != null ? scan.rescan() : SourceScan.scan(basedir, includes, excludes);
+        scans.put(key, scan);
+
+        return scan;
     }
 
-    public synchronized void addForcedCompilationTestSource(final MavenProject project, final File file) {
-        String projectKey = projectKey(project);
+    private ProjectState state(final MavenProject project) {
+        assert project != null;
 
-        if (!forceCompileTest.containsKey(projectKey)) {
-            forceCompileTest.put(projectKey, new TreeSet());
+        File basedir = project.getBasedir();
+
+        ProjectState state = basedir != null ? (ProjectState) basedirs.get(basedir) : null;
+
+        if (state == null) {
+            // Different paths to the same directory share their state
+            state = canonicalState(project, basedir);
+            basedirs.put(basedir, state);
         }
 
-        ((Set) forceCompileTest.get(projectKey)).add(file);
+        return state;
     }
 
-    public synchronized Set getForcedCompilationTestSources(final MavenProject project) {
-        String projectKey = projectKey(project);
+    private ProjectState canonicalState(final MavenProject project, final File basedir) {
+        if (basedir == null || !basedir.isDirectory()) {
+            throw new IllegalStateException("Project " + project.getId() + " does not define a base directory: " + basedir);
+        }
 
-        if (forceCompileTest.containsKey(projectKey)) {
-            Set files = new TreeSet();
-            for (Iterator i = ((Set) forceCompileTest.get(projectKey)).iterator(); i.hasNext();) {
-                File file = (File) i.next();
-                if (file.isFile()) {
-                    files.add(file);
-                }
-            }
+        String key;
 
-            return Collections.unmodifiableSet(files);
+        try {
+            key = basedir.getCanonicalPath();
         }
-        else {
-            return Collections.unmodifiableSet(new TreeSet());
+        catch (IOException e) {
+            throw new RuntimeException(e);
         }
+
+        ProjectState state = (ProjectState) projects.get(key);
+
+        if (state == null) {
+            ProjectState created = new ProjectState();
+            state = (ProjectState) projects.putIfAbsent(key, created);
+
+            if (state == null) {
+                state = created;
+            }
+        }
+
+        return state;
     }
 
-    private String projectKey(final MavenProject project) {
-        assert project != null;
+    /**
+     * State of a single project.
+     */
+    private static class ProjectState
+    {
+        final FileSnapshots forceCompile = new FileSnapshots();
+
+        final FileSnapshots forceCompileTest = new FileSnapshots();
+
+        final Map sourceScans = new ConcurrentHashMap();
+    }
 
-        if (project.getBasedir() == null || !project.getBasedir().isDirectory()) {
-            throw new IllegalStateException("Project " + project.getId() + " does not define a base directory: " + project.getBasedir());
+    /**
+     * Concurrent set of files, read through a cached immutable snapshot of those which existed when it was built.
+     */
+    private static class FileSnapshots
+    {
+        private final Map files = new ConcurrentHashMap();
+
+        private volatile Set snapshot = Collections.unmodifiableSet(new TreeSet());
+
+        private volatile boolean dirty;
+
+        void add(final File file) {
+            assert file != null;
+
+            if (files.put(file, Boolean.TRUE) == null) {
+                dirty = true;
+            }
         }
 
-        try {
-            return project.getBasedir().getCanonicalPath();
+        void refresh() {
+            dirty = true;
         }
-        catch (IOException e) {
-            throw new RuntimeException(e);
+
+        Set snapshot() {
+            if (!dirty) {
+                return snapshot;
+            }
+
+            synchronized (this) {
+                // Clear first, an add racing with the rebuild marks the next read dirty again
+                dirty = false;
+
+                Set existing = new TreeSet();
+
+                for (Iterator iter = files.keySet().iterator(); iter.hasNext();) {
+                    File file = (File) iter.next();
+
+                    if (file.isFile()) {
+                        existing.add(file);
+                    }
+                }
+
+                snapshot = Collections.unmodifiableSet(existing);
+
+                return snapshot;
+            }
         }
     }
 }
@@ -16,15 +16,17 @@
 
 package org.codehaus.gmaven.plugin;
 
-import org.apache.maven.shared.io.scan.StaleResourceScanner;
+import org.apache.maven.shared.io.scan.InclusionScanException;
 import org.apache.maven.shared.io.scan.mapping.SourceMapping;
 import org.apache.maven.shared.model.fileset.FileSet;
 import org.codehaus.gmaven.common.ArtifactItem;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -99,6 +101,23 @@ public abstract class CompilerMojoSupport
         return classpath;
     }
 
+    /**
+     * Also walks the source directories, so the scans are ready when the compiler asks for the stale sources.
+     */
+    protected void prepare() throws Exception {
+        super.prepare();
+
+        FileSet[] fileSets = getSources() != null ? getSources() : getDefaultSources();
+
+        for (int i=0; i<fileSets.length; i++) {
+            File sourceDir = new File(fileSets[i].getDirectory());
+
+            if (sourceDir.exists()) {
+                compileState.getSourceScan(project, sourceDir, getIncludesFrom(fileSets[i]), getExcludesFrom(fileSets[i]));
+            }
+        }
+    }
+
     //
     // File Scanning
     //
@@ -127,7 +146,18 @@ public abstract class CompilerMojoSupport
         return Collections.EMPTY_SET;
     }
 
+    /**
+     * Returns every source of the file set, stale or not.
+     */
+    protected File[] scanForSources(final FileSet fileSet) throws Exception {
+        return scanForSources(fileSet, null, true);
+    }
+
     protected File[] scanForSources(final FileSet fileSet, final SourceMapping[] mappings) throws Exception {
+        return scanForSources(fileSet, mappings, false);
+    }
+
+    private File[] scanForSources(final FileSet fileSet, final SourceMapping[] mappings, final boolean all) throws Exception {
         assert fileSet != null;
 
         File sourceDir = new File(fileSet.getDirectory());
@@ -139,23 +169,51 @@ public abstract class CompilerMojoSupport
             return new File[0];
         }
 
-        File targetDir = getOutputDirectory();
+        File targetDir = all ? null : getOutputDirectory();
         Set includes = getIncludesFrom(fileSet);
         Set excludes = getExcludesFrom(fileSet);
 
-        StaleResourceScanner scanner = new StaleResourceScanner(0, includes, excludes);
+        // The directory walk is shared with the other goals of this project, only staleness is checked per goal
+        SourceScan scan = compileState.getSourceScan(project, sourceDir, includes, excludes);
 
-        if (mappings != null && mappings.length > 0) {
-            for (int i=0; i<mappings.length; i++) {
-                scanner.addSourceMapping(mappings[i]);
+        List files = new ArrayList();
+
+        for (Iterator iter=scan.getPaths().iterator(); iter.hasNext();) {
+            String path = (String) iter.next();
+
+            if (all || isStale(sourceDir, path, targetDir, mappings)) {
+                files.add(new File(sourceDir, path));
             }
         }
 
-        Set files = scanner.getIncludedSources(sourceDir, targetDir);
-
         return (File[]) files.toArray(new File[files.size()]);
     }
 
+    /**
+     * Same rules as <tt>StaleResourceScanner</tt>: a source is stale when one of its mapped targets is missing or older.
+     */
+    private boolean isStale(final File sourceDir, final String path, final File targetDir, final SourceMapping[] mappings) throws InclusionScanException {
+        if (mappings == null) {
+            return false;
+        }
+
+        File source = new File(sourceDir, path);
+
+        for (int i=0; i<mappings.length; i++) {
+            Set targets = mappings[i].getTargetFiles(targetDir, path);
+
+            for (Iterator iter=targets.iterator(); iter.hasNext();) {
+                File target = (File) iter.next();
+
+                if (!target.exists() || source.lastModified() > target.lastModified()) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     protected File[] scanForSources(final FileSet fileSet, final SourceMapping mapping) throws Exception {
         assert mapping != null;
 
@@ -20,6 +20,8 @@ import org.codehaus.gmaven.feature.Component;
 import org.codehaus.gmaven.feature.Configuration;
 import org.codehaus.gmaven.feature.Feature;
 
+import java.net.URL;
+
 /**
  * Support for Mojo implementations which delegate to a feature component.
  *
@@ -50,16 +52,44 @@ public abstract class ComponentMojoSupport
     }
 
     protected void doExecute() throws Exception {
-        Feature feature = feature();
+        // The selected provider warms up in the background while the mojo prepares
+        warmup();
+        prepare();
 
         Configuration context = new Configuration();
         configure(context);
 
-        Component component = feature.create(context);
+        Feature feature = feature();
+
+        Component component = feature.create(context.snapshot());
 
         process(component);
     }
 
+    /**
+     * Do the work which does not need the provider; by default builds the classpath.
+     *
+     * @since 1.6
+     */
+    protected void prepare() throws Exception {
+        preparedClassPath = createClassPath();
+    }
+
+    private URL[] preparedClassPath;
+
+    /**
+     * Returns the classpath built by {@link #prepare}, or builds it now when it was not prepared.
+     *
+     * @since 1.6
+     */
+    protected URL[] classPath() throws Exception {
+        if (preparedClassPath == null) {
+            preparedClassPath = createClassPath();
+        }
+
+        return preparedClassPath;
+    }
+
     protected void configure(final Configuration context) throws Exception {
         // Nothing by default
     }
@@ -26,12 +26,14 @@ import org.apache.maven.artifact.resolver.ArtifactResolutionException;
 import org.apache.maven.artifact.resolver.ArtifactResolver;
 import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
 import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.gmaven.common.ArtifactItem;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,7 +41,10 @@ import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Support for Mojo implementations.
@@ -63,10 +68,33 @@ public abstract class MojoSupport
      */
     protected MavenProject project;
 
+    /**
+     * @parameter expression="${session}"
+     * @readonly
+     * @required
+     *
+     * @noinspection UnusedDeclaration
+     */
+    protected MavenSession session;
+
     /**
      * Main Mojo execution hook.  Sub-class should use {@link #doExecute} instead.
      */
     public synchronized void execute() throws MojoExecutionException, MojoFailureException {
+        TraceTimeline.installIfConfigured();
+
+        if (session != null && classpathCache != null) {
+            classpathCache.setSession(session);
+        }
+
+        // Flight recorder events from this thread are tagged with the module being built
+        if (project != null) {
+            FlightEvent.setModule(project.getId());
+        }
+
+        FlightEvent.acquire();
+        FlightEvent event = FlightEvent.begin(FlightEvent.MOJO_EXECUTION).phase(getMojoName());
+
         try {
             doExecute();
         }
@@ -87,6 +115,16 @@ public abstract class MojoSupport
                 throw new MojoExecutionException(e.getMessage(), e);
             }
         }
+        finally {
+            event.end();
+            FlightEvent.clearContext();
+            FlightEvent.release();
+        }
+    }
+
+    private String getMojoName() {
+        String name = getClass().getName();
+        return name.substring(name.lastIndexOf('.') + 1);
     }
 
     protected abstract void doExecute() throws Exception;
@@ -103,6 +141,15 @@ public abstract class MojoSupport
         return new ArtifactItem[0];
     }
 
+    /**
+     * @component
+     * @readonly
+     * @required
+     *
+     * @noinspection UnusedDeclaration
+     */
+    protected ClasspathCache classpathCache;
+
     protected URL[] createClassPath() throws Exception {
         List list = new ArrayList();
 
@@ -112,7 +159,7 @@ public abstract class MojoSupport
             log.debug("Project Classpath:");
 
             for (int i = 0; i < files.size(); ++i) {
-                URL url = new File((String)files.get(i)).toURI().toURL();
+                URL url = classpathCache.getURL((String)files.get(i));
                 list.add(url);
                 log.debug("    {}", url);
             }
@@ -122,11 +169,12 @@ public abstract class MojoSupport
         ArtifactItem[] items = getUserClassspathElements();
 
         if (items != null) {
+            File[] resolved = resolveArtifactFiles(items);
+
             log.debug("User Classpath:");
 
-            for (int i=0; i < items.length; i++) {
-                Artifact artifact = getArtifact(items[i]);
-                URL url = artifact.getFile().toURI().toURL();
+            for (int i=0; i < resolved.length; i++) {
+                URL url = classpathCache.getURL(resolved[i].getPath());
                 list.add(url);
                 log.debug("    {}", url);
             }
@@ -135,6 +183,58 @@ public abstract class MojoSupport
         return (URL[])list.toArray(new URL[list.size()]);
     }
 
+    /**
+     * Resolves the files of the given items, only going to the resolver once per distinct item
+     * which was not already resolved for this project earlier in the build.
+     */
+    protected File[] resolveArtifactFiles(final ArtifactItem[] items) throws MojoExecutionException {
+        return resolveArtifactFiles(project, items);
+    }
+
+    /**
+     * Resolves the files of the given items in the context of the given project.
+     *
+     * @since 1.6
+     */
+    protected File[] resolveArtifactFiles(final MavenProject project, final ArtifactItem[] items) throws MojoExecutionException {
+        assert project != null;
+        assert items != null;
+
+        File[] files = new File[items.length];
+
+        // Keys are taken up front, resolving fills in missing versions of the items
+        String[] keys = new String[items.length];
+        Map pending = new LinkedHashMap();
+
+        for (int i=0; i < items.length; i++) {
+            keys[i] = items[i].toString();
+            files[i] = classpathCache.getArtifactFile(project, keys[i]);
+
+            if (files[i] == null && !pending.containsKey(keys[i])) {
+                pending.put(keys[i], items[i]);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            log.debug("Resolving {} user classpath artifact(s)", String.valueOf(pending.size()));
+
+            for (Iterator iter=pending.entrySet().iterator(); iter.hasNext();) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                Artifact artifact = resolveArtifact(project, createArtifact(project, (ArtifactItem) entry.getValue()), false);
+
+                classpathCache.putArtifactFile(project, (String) entry.getKey(), artifact.getFile());
+            }
+
+            for (int i=0; i < items.length; i++) {
+                if (files[i] == null) {
+                    files[i] = classpathCache.getArtifactFile(project, keys[i]);
+                }
+            }
+        }
+
+        return files;
+    }
+
     //
     // Artifact Muck
     //
@@ -194,10 +294,20 @@ public abstract class MojoSupport
      * @throws MojoExecutionException   Failed to create artifact
      */
     protected Artifact createArtifact(final ArtifactItem item) throws MojoExecutionException {
+        return createArtifact(project, item);
+    }
+
+    /**
+     * Create a new artifact, filling in a missing version from the given project.
+     *
+     * @since 1.6
+     */
+    protected Artifact createArtifact(final MavenProject project, final ArtifactItem item) throws MojoExecutionException {
+        assert project != null;
         assert item != null;
 
         if (item.getVersion() == null) {
-            fillMissingArtifactVersion(item);
+            fillMissingArtifactVersion(project, item);
 
             if (item.getVersion() == null) {
                 throw new MojoExecutionException("Unable to find artifact version of " + item.getGroupId()
@@ -253,6 +363,16 @@ public abstract class MojoSupport
      * @throws MojoExecutionException   Failed to resolve artifact
      */
     protected Artifact resolveArtifact(final Artifact artifact, final boolean transitive) throws MojoExecutionException {
+        return resolveArtifact(project, artifact, transitive);
+    }
+
+    /**
+     * Resolves the Artifact from the remote repositories of the given project if necessary.
+     *
+     * @since 1.6
+     */
+    protected Artifact resolveArtifact(final MavenProject project, final Artifact artifact, final boolean transitive) throws MojoExecutionException {
+        assert project != null;
         assert artifact != null;
 
         try {
@@ -287,7 +407,7 @@ public abstract class MojoSupport
      *
      * @param item  The item to fill in missing version details into
      */
-    private void fillMissingArtifactVersion(final ArtifactItem item) {
+    private void fillMissingArtifactVersion(final MavenProject project, final ArtifactItem item) {
         log.trace("Attempting to find missing version in {}:{}", item.getGroupId() , item.getArtifactId());
 
         List list = project.getDependencies();
@@ -28,9 +28,14 @@ import org.codehaus.gmaven.feature.ProviderException;
 import org.codehaus.gmaven.feature.ProviderManager;
 import org.codehaus.gmaven.runtime.loader.artifact.ArtifactHandler;
 import org.codehaus.gmaven.runtime.loader.artifact.ArtifactProviderLoader;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
 
+import java.io.File;
+import java.security.MessageDigest;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Provides support for Mojo implementations which need to have access to a {@link Provider} instances.
@@ -71,6 +76,27 @@ public abstract class ProviderMojoSupport
      */
     private ArtifactProviderLoader artifactProviderLoader;
 
+    /**
+     * Record the resolved provider classpath in the local repository and reuse it while
+     * none of its files have changed, instead of resolving the provider dependencies on every build.
+     *
+     * @parameter expression="${gmaven.runtime.indexClassPath}" default-value="true"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private boolean providerClassPathIndex = true;
+
+    /**
+     * Preload the Groovy runtime of the selected provider on a background thread while the mojo prepares its work.
+     *
+     * @parameter expression="${gmaven.runtime.warmup}" default-value="false"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private boolean providerWarmup;
+
     private ArtifactHandler artifactHandler;
 
     private void configureArtifactProviderLoader() {
@@ -80,6 +106,15 @@ public abstract class ProviderMojoSupport
                 artifactProviderLoader.setHandler(new ArtifactHandlerImpl());
                 artifactHandler = artifactProviderLoader.getHandler();
 
+                if (providerClassPathIndex) {
+                    artifactProviderLoader.setIndexDirectory(new File(artifactRepository.getBasedir(), "org/codehaus/gmaven/runtime"));
+                    artifactProviderLoader.setIndexQualifier(createIndexQualifier(pluginArtifactMap));
+                }
+                else {
+                    artifactProviderLoader.setIndexDirectory(null);
+                    artifactProviderLoader.setIndexQualifier(null);
+                }
+
                 log.debug("Artifact loader configured with handler: {}", artifactHandler);
             }
             catch (Throwable t) {
@@ -88,6 +123,41 @@ public abstract class ProviderMojoSupport
         }
     }
 
+    /**
+     * The handler leaves the plugin artifacts out of the resolved provider classpath, so the recorded
+     * classpath is only valid for the same set of plugin artifacts.
+     */
+    static String createIndexQualifier(final Map artifacts) throws Exception {
+        assert artifacts != null;
+
+        // Sorted by id, so the qualifier does not depend on the order of the map
+        Map ids = new TreeMap();
+
+        for (Iterator iter = artifacts.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            Artifact artifact = (Artifact) entry.getValue();
+
+            ids.put(entry.getKey(), artifact.getBaseVersion());
+        }
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        byte[] bytes = digest.digest(ids.toString().getBytes("UTF-8"));
+
+        StringBuffer buff = new StringBuffer();
+
+        // The first 8 bytes are plenty to tell the few sets used on one machine apart
+        for (int i=0; i<8; i++) {
+            String hex = Integer.toHexString(bytes[i] & 0xff);
+
+            if (hex.length() == 1) {
+                buff.append('0');
+            }
+            buff.append(hex);
+        }
+
+        return buff.toString();
+    }
+
     protected ProviderManager getProviderManager() {
         configureArtifactProviderLoader();
 
@@ -113,6 +183,19 @@ public abstract class ProviderMojoSupport
         return providerSelection;
     }
 
+    /**
+     * Start the background provider warm-up, if enabled.
+     *
+     * The provider is selected on the calling thread first, the artifact resolver is not safe to share.
+     *
+     * @since 1.6
+     */
+    protected void warmup() throws Exception {
+        if (providerWarmup) {
+            ProviderWarmup.start(provider());
+        }
+    }
+
     private Provider selectedProvider;
 
     protected Provider provider() throws Exception {
@@ -120,6 +203,8 @@ public abstract class ProviderMojoSupport
             selectedProvider = getProviderManager().select(getProviderSelection());
         }
 
+        FlightEvent.setProvider(selectedProvider.key());
+
         return selectedProvider;
     }
 
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import org.codehaus.gmaven.feature.Provider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Preloads the Groovy runtime classes most builds need from a selected provider, on a background thread.
+ *
+ * The provider is selected on the mojo thread beforehand, as its artifacts must not be resolved concurrently
+ * with the mojos own classpath; only the class loading overlaps with the mojos work.
+ *
+ * @version $Id$
+ */
+public class ProviderWarmup
+    implements Runnable
+{
+    /**
+     * Classes which are loaded (and initialized) by nearly every compile or execute.
+     */
+    private static final String[] PRELOAD_CLASSES = {
+        "groovy.lang.GroovyClassLoader",
+        "groovy.lang.GroovyCodeSource",
+        "groovy.lang.Binding",
+        "groovy.lang.Script",
+        "org.codehaus.groovy.runtime.InvokerHelper",
+        "org.codehaus.groovy.control.CompilerConfiguration",
+        "org.codehaus.groovy.control.CompilationUnit",
+        "org.codehaus.groovy.control.SourceUnit",
+        "org.codehaus.groovy.antlr.AntlrParserPlugin",
+        "org.codehaus.groovy.classgen.AsmClassGenerator",
+    };
+
+    /**
+     * Providers warmed up so far; the providers of a new container (as in embedded or daemon builds) warm up again.
+     */
+    private static final Map started = new WeakHashMap();
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Provider provider;
+
+    private ProviderWarmup(final Provider provider) {
+        assert provider != null;
+
+        this.provider = provider;
+    }
+
+    /**
+     * Start warming up the given provider, unless that has already been done.
+     *
+     * @return  The warm-up thread, or null if the provider was already warmed up.
+     */
+    public static Thread start(final Provider provider) {
+        assert provider != null;
+
+        synchronized (started) {
+            if (started.put(provider, Boolean.TRUE) != null) {
+                return null;
+            }
+        }
+
+        Thread thread = new Thread(new ProviderWarmup(provider), "gmaven-warmup[" + provider.key() + "]");
+        thread.setDaemon(true);
+        thread.start();
+
+        return thread;
+    }
+
+    public void run() {
+        log.debug("Warming up provider: {}", provider);
+
+        ClassLoader cl = provider.getClass().getClassLoader();
+
+        for (int i=0; i<PRELOAD_CLASSES.length; i++) {
+            try {
+                Class.forName(PRELOAD_CLASSES[i], true, cl);
+            }
+            catch (Throwable t) {
+                log.trace("Unable to preload: " + PRELOAD_CLASSES[i], t);
+            }
+        }
+
+        log.debug("Provider warm-up complete: {}", provider);
+    }
+}
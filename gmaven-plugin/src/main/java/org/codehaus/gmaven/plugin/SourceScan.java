@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.SelectorUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The files of a source directory matching a set of include and exclude patterns.
+ *
+ * Sub-directories are listed in parallel, and directories which can not hold any included file are not entered.
+ * The modification time of every visited directory is kept, so a scan can tell when files were added or removed
+ * and {@link CompileState} can hand the same scan to every goal of a module.  Matching follows
+ * <tt>DirectoryScanner</tt>, including its default excludes.
+ *
+ * @version $Id$
+ */
+public final class SourceScan
+{
+    private static final int THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Coarsest modification time granularity to expect (FAT, NFS); a change this close to a scan may not show.
+     */
+    static final long GRANULARITY = 2000;
+
+    private final File basedir;
+
+    private final String[] includes;
+
+    private final String[] excludes;
+
+    /**
+     * Relative paths of the matching files, sorted.
+     */
+    private final List paths;
+
+    /**
+     * Visited directory -> its modification time.
+     */
+    private final Map directories;
+
+    /**
+     * When the scan started.
+     */
+    private final long started;
+
+    private SourceScan(final File basedir, final String[] includes, final String[] excludes, final List paths, final Map directories, final long started) {
+        this.basedir = basedir;
+        this.includes = includes;
+        this.excludes = excludes;
+        this.paths = paths;
+        this.directories = directories;
+        this.started = started;
+    }
+
+    public File getBasedir() {
+        return basedir;
+    }
+
+    /**
+     * Returns the paths of the matching files, relative to the base directory.
+     */
+    public List getPaths() {
+        return paths;
+    }
+
+    /**
+     * Check if no directory visited by this scan was modified, added or removed since.
+     *
+     * A directory modified within the timestamp granularity of the scan start could have changed again without
+     * a new modification time, so it never counts as current.
+     */
+    public boolean isCurrent() {
+        for (Iterator iter = directories.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            File dir = (File) entry.getKey();
+            long modified = ((Long) entry.getValue()).longValue();
+
+            if (dir.lastModified() != modified || modified > started - GRANULARITY) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Scan the base directory again with the same patterns.
+     */
+    public SourceScan rescan() throws InterruptedException {
+        return scan(basedir, includes, excludes);
+    }
+
+    public static SourceScan scan(final File basedir, final Set includes, final Set excludes) throws InterruptedException {
+        assert basedir != null;
+        assert includes != null;
+        assert excludes != null;
+
+        Set allExcludes = new LinkedHashSet(excludes);
+        allExcludes.addAll(Arrays.asList(DirectoryScanner.DEFAULTEXCLUDES));
+
+        return scan(basedir, normalize(includes), normalize(allExcludes));
+    }
+
+    private static SourceScan scan(final File basedir, final String[] includes, final String[] excludes) throws InterruptedException {
+        long started = System.currentTimeMillis();
+
+        Walker walker = new Walker(includes, excludes);
+        walker.walk(basedir);
+
+        List paths = new ArrayList(walker.paths);
+        Collections.sort(paths);
+
+        return new SourceScan(basedir, includes, excludes, Collections.unmodifiableList(paths), new HashMap(walker.directories), started);
+    }
+
+    /**
+     * Normalizes patterns the same way as <tt>DirectoryScanner</tt>, once per scan instead of once per file.
+     */
+    static String[] normalize(final Set patterns) {
+        String[] normalized = new String[patterns.size()];
+        int i = 0;
+
+        for (Iterator iter = patterns.iterator(); iter.hasNext();) {
+            String pattern = ((String) iter.next()).trim().replace('/', File.separatorChar).replace('\\', File.separatorChar);
+
+            if (pattern.endsWith(File.separator)) {
+                pattern += "**";
+            }
+
+            normalized[i++] = pattern;
+        }
+
+        return normalized;
+    }
+
+    /**
+     * Lists one directory per task, and waits until no listing is left.
+     */
+    private static class Walker
+    {
+        private final String[] includes;
+
+        private final String[] excludes;
+
+        private final List paths = Collections.synchronizedList(new ArrayList());
+
+        private final Map directories = new ConcurrentHashMap();
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private ExecutorService executor;
+
+        private volatile Throwable failure;
+
+        Walker(final String[] includes, final String[] excludes) {
+            this.includes = includes;
+            this.excludes = excludes;
+        }
+
+        void walk(final File basedir) throws InterruptedException {
+            if (!basedir.isDirectory()) {
+                // Remember the missing directory, so the scan goes stale once it is created
+                directories.put(basedir, new Long(basedir.lastModified()));
+                return;
+            }
+
+            executor = Executors.newFixedThreadPool(THREADS);
+
+            try {
+                submit(basedir, "");
+                done.await();
+            }
+            finally {
+                executor.shutdownNow();
+            }
+
+            if (failure != null) {
+                throw new RuntimeException("Failed to scan: " + basedir, failure);
+            }
+        }
+
+        private void submit(final File dir, final String path) {
+            pending.incrementAndGet();
+
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        list(dir, path);
+                    }
+                    catch (Throwable t) {
+                        failure = t;
+                    }
+                    finally {
+                        if (pending.decrementAndGet() == 0) {
+                            done.countDown();
+                        }
+                    }
+                }
+            });
+        }
+
+        private void list(final File dir, final String path) {
+            directories.put(dir, new Long(dir.lastModified()));
+
+            File[] children = dir.listFiles();
+            if (children == null) {
+                return;
+            }
+
+            for (int i = 0; i < children.length; i++) {
+                String name = path + children[i].getName();
+
+                if (children[i].isDirectory()) {
+                    if (couldHoldIncluded(includes, name)) {
+                        submit(children[i], name + File.separator);
+                    }
+                }
+                else if (matches(includes, name) && !matches(excludes, name)) {
+                    paths.add(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if a directory, given by its relative path, could hold a file matching one of the include patterns.
+     */
+    static boolean couldHoldIncluded(final String[] includes, final String name) {
+        for (int i = 0; i < includes.length; i++) {
+            if (SelectorUtils.matchPatternStart(includes[i], name, true)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean matches(final String[] patterns, final String name) {
+        for (int i = 0; i < patterns.length; i++) {
+            if (SelectorUtils.matchPath(patterns[i], name, true)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
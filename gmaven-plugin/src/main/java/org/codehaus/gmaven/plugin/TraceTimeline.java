@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import org.codehaus.gmaven.runtime.util.FlightEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes a timeline of the build in the Chrome trace event format, for <tt>chrome://tracing</tt> or Perfetto.
+ *
+ * Enabled with <tt>-Dgmaven.trace=&lt;file&gt;</tt>.  Each {@link FlightEvent} becomes a complete event on the
+ * track of the thread which ran it, so parallel builds get one track per builder thread.  Ending threads only
+ * format and queue their events; one writer thread appends them and flushes whenever the queue runs empty, so
+ * the viewers accept the file even if the build dies before it is closed.
+ *
+ * @version $Id$
+ */
+public class TraceTimeline
+    implements FlightEvent.Listener
+{
+    public static final String PROPERTY = "gmaven.trace";
+
+    /**
+     * How long {@link #close} waits for the queued events to be written.
+     */
+    private static final long CLOSE_TIMEOUT = 10 * 1000;
+
+    /**
+     * Queued after the last event, tells the writer thread to finish the file.
+     */
+    private static final Object END = new Object();
+
+    private static TraceTimeline instance;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final long baseTime = System.nanoTime();
+
+    private final ConcurrentMap namedThreads = new ConcurrentHashMap();
+
+    private final BlockingQueue queue = new LinkedBlockingQueue();
+
+    private final File file;
+
+    private final Writer writer;
+
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+
+    private boolean first = true;
+
+    TraceTimeline(final File file) throws IOException {
+        assert file != null;
+
+        this.file = file;
+
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        writer.write("[\n");
+        write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"Maven\"}}");
+        writer.flush();
+
+        writerThread = new Thread("gmaven-trace-writer") {
+            public void run() {
+                drain();
+            }
+        };
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Starts the timeline if the trace property is set, once per build.
+     */
+    public static synchronized void installIfConfigured() {
+        if (instance != null) {
+            return;
+        }
+
+        String path = System.getProperty(PROPERTY);
+        if (path == null || path.trim().length() == 0) {
+            return;
+        }
+
+        try {
+            instance = new TraceTimeline(new File(path.trim()));
+        }
+        catch (IOException e) {
+            LoggerFactory.getLogger(TraceTimeline.class).warn("Unable to write trace timeline: " + path, e);
+            return;
+        }
+
+        FlightEvent.addListener(instance);
+
+        Runtime.getRuntime().addShutdownHook(new Thread("gmaven-trace-close") {
+            public void run() {
+                instance.close();
+            }
+        });
+
+        instance.log.info("Writing trace timeline to: {}", instance.file);
+    }
+
+    /**
+     * Formats the event and queues it for the writer thread; never blocks on the file.
+     */
+    public void eventEnded(final FlightEvent event) {
+        assert event != null;
+
+        if (closed) {
+            return;
+        }
+
+        // Far too fine grained for a timeline, and too many of them
+        if (event.getType() == FlightEvent.EXPRESSION_EVALUATION) {
+            return;
+        }
+
+        Thread thread = event.getThread();
+        Long tid = new Long(thread.getId());
+
+        if (namedThreads.putIfAbsent(tid, thread.getName()) == null) {
+            queue.add("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + tid + ",\"args\":{\"name\":" + quote(thread.getName()) + "}}");
+        }
+
+        StringBuffer buff = new StringBuffer();
+        buff.append("{\"name\":").append(quote(nameOf(event)));
+        buff.append(",\"cat\":").append(quote(event.getType().getName()));
+        buff.append(",\"ph\":\"X\"");
+        buff.append(",\"ts\":").append((event.getStartTime() - baseTime) / 1000);
+        buff.append(",\"dur\":").append((event.getEndTime() - event.getStartTime()) / 1000);
+        buff.append(",\"pid\":1,\"tid\":").append(tid);
+        buff.append(",\"args\":{");
+        buff.append("\"module\":").append(quote(event.getModule()));
+        buff.append(",\"file\":").append(quote(event.getFile()));
+        buff.append(",\"provider\":").append(quote(event.getProvider()));
+        buff.append(",\"phase\":").append(quote(event.getPhase()));
+        buff.append("}}");
+
+        queue.add(buff.toString());
+    }
+
+    /**
+     * Run by the writer thread; writes whatever is queued, and only flushes when it would wait for more.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                Object json = queue.take();
+
+                while (json != null) {
+                    if (json == END) {
+                        writer.write("\n]\n");
+                        writer.close();
+                        return;
+                    }
+
+                    write((String) json);
+                    json = queue.poll();
+                }
+
+                writer.flush();
+            }
+        }
+        catch (InterruptedException e) {
+            log.debug("Interrupted writing trace timeline", e);
+        }
+        catch (IOException e) {
+            log.warn("Failed to write trace timeline; disabling", e);
+        }
+
+        closed = true;
+        FlightEvent.removeListener(this);
+        queue.clear();
+
+        try {
+            writer.close();
+        }
+        catch (IOException e) {
+            log.debug("Failed to close trace timeline", e);
+        }
+    }
+
+    private String nameOf(final FlightEvent event) {
+        String name = event.getType().getName();
+
+        if (event.getPhase() != null) {
+            name = name + " " + event.getPhase();
+        }
+
+        return name;
+    }
+
+    private void write(final String json) throws IOException {
+        if (!first) {
+            writer.write(",\n");
+        }
+        first = false;
+
+        writer.write(json);
+    }
+
+    /**
+     * Stops listening, and waits for the writer thread to write the queued events and finish the file.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        FlightEvent.removeListener(this);
+        queue.add(END);
+
+        try {
+            writerThread.join(CLOSE_TIMEOUT);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String quote(final String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuffer buff = new StringBuffer(value.length() + 2);
+        buff.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    buff.append("\\\"");
+                    break;
+                case '\\':
+                    buff.append("\\\\");
+                    break;
+                case '\n':
+                    buff.append("\\n");
+                    break;
+                case '\r':
+                    buff.append("\\r");
+                    break;
+                case '\t':
+                    buff.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        String hex = Integer.toHexString(c);
+                        buff.append("\\u");
+                        for (int pad = hex.length(); pad < 4; pad++) {
+                            buff.append('0');
+                        }
+                        buff.append(hex);
+                    }
+                    else {
+                        buff.append(c);
+                    }
+            }
+        }
+
+        buff.append('"');
+        return buff.toString();
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.codehaus.gmaven.plugin.compile;
 
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.shared.io.scan.mapping.SourceMapping;
 import org.apache.maven.shared.io.scan.mapping.SuffixMapping;
 import org.apache.maven.shared.model.fileset.FileSet;
@@ -25,6 +26,8 @@ import org.codehaus.gmaven.plugin.CompilerMojoSupport;
 import org.codehaus.gmaven.runtime.ClassCompiler;
 
 import java.io.File;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -133,8 +136,34 @@ public abstract class AbstractCompileMojo
      */
     private String defaultScriptExtension;
 
+    /**
+     * Store entries of the output jar compressed; uncompressed jars are faster to write and read back.
+     *
+     * @parameter expression="${gmaven.outputJarCompress}" default-value="true"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private boolean outputJarCompress;
+
+    /**
+     * Timestamp for reproducible output jar entries, either seconds since the epoch or
+     * an ISO-8601 date-time like <tt>2010-01-01T00:00:00Z</tt>.
+     *
+     * @parameter expression="${project.build.outputTimestamp}"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private String outputTimestamp;
+
     protected abstract Set getForcedCompileSources();
 
+    /**
+     * Returns the jar to compile into, or null to compile into the output directory.
+     */
+    protected abstract File getOutputJar();
+
     protected void process(final Component component) throws Exception {
         assert component != null;
 
@@ -142,7 +171,7 @@ public abstract class AbstractCompileMojo
 
         compiler.setTargetDirectory(getOutputDirectory());
 
-        compiler.setClassPath(createClassPath());
+        compiler.setClassPath(classPath());
 
         Configuration config = component.config();
 
@@ -172,20 +201,79 @@ public abstract class AbstractCompileMojo
             config.set(DEFAULT_SCRIPT_EXTENSION, defaultScriptExtension);
         }
 
+        // Stubs may have been generated or removed since the last goal
+        compileState.refreshForcedSources(project);
+
+        File outputJar = getOutputJar();
+
+        if (outputJar != null) {
+            // Stubs compiled by javac would stay in the output directory in place of the classes in the jar
+            if (!getForcedCompileSources().isEmpty()) {
+                throw new MojoExecutionException("Can not compile into " + outputJar + " when stubs were generated;"
+                    + " remove the stub generation goals or the output jar");
+            }
+
+            config.set(TARGET_JAR, outputJar);
+
+            config.set(TARGET_JAR_COMPRESS, outputJarCompress);
+
+            long timestamp = parseTimestamp(outputTimestamp);
+            if (timestamp >= 0) {
+                config.set(TARGET_JAR_TIMESTAMP, String.valueOf(timestamp));
+            }
+        }
+
         compile(compiler, getSources() != null ? getSources() : getDefaultSources());
     }
 
+    /**
+     * Parses an output timestamp the way the Maven archiver does; returns -1 when unset or disabled.
+     */
+    private long parseTimestamp(final String value) throws MojoExecutionException {
+        // A single character (or nothing) disables reproducible timestamps
+        if (value == null || value.trim().length() < 2) {
+            return -1;
+        }
+
+        String text = value.trim();
+
+        try {
+            return Long.parseLong(text) * 1000;
+        }
+        catch (NumberFormatException e) {
+            // Not seconds, try ISO-8601
+        }
+
+        // SimpleDateFormat only understands offsets without a colon
+        if (text.endsWith("Z")) {
+            text = text.substring(0, text.length() - 1) + "+0000";
+        }
+        else if (text.length() > 6 && text.charAt(text.length() - 3) == ':') {
+            text = text.substring(0, text.length() - 3) + text.substring(text.length() - 2);
+        }
+
+        try {
+            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").parse(text).getTime();
+        }
+        catch (ParseException e) {
+            throw new MojoExecutionException("Invalid output timestamp: " + value, e);
+        }
+    }
+
     protected void compile(final ClassCompiler compiler, final FileSet[] sources) throws Exception {
         assert compiler != null;
         assert sources != null;
 
+        // The jar is written from scratch, and classes in the output directory say nothing about what is in it
+        boolean all = getOutputJar() != null;
+
         for (int i=0; i<sources.length; i++) {
             SourceMapping[] mappings = {
                 new SuffixMapping(".groovy", ".class"),
                 new SuffixMapping(".java", ".class"),
             };
 
-            File[] files = scanForSources(sources[i], mappings);
+            File[] files = all ? scanForSources(sources[i]) : scanForSources(sources[i], mappings);
 
             for (int j=0; j < files.length; j++) {
                 log.debug(" + " + files[j]);
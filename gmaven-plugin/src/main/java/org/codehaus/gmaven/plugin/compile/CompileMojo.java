@@ -46,6 +46,18 @@ public class CompileMojo
      */
     private File outputDirectory;
 
+    /**
+     * Jar to write generated class files into, instead of the output directory.
+     * The jar is neither added to the test classpath nor attached to the project, and can not be used
+     * together with stub generation.
+     *
+     * @parameter expression="${gmaven.outputJar}"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private File outputJar;
+
     protected List getProjectClasspathElements() throws DependencyResolutionRequiredException {
         return project.getCompileClasspathElements();
     }
@@ -54,6 +66,10 @@ public class CompileMojo
         return outputDirectory;
     }
 
+    protected File getOutputJar() {
+        return outputJar;
+    }
+
     protected List getSourceRoots() {
         return project.getCompileSourceRoots();
     }
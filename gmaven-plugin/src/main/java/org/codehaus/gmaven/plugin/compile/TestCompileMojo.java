@@ -47,6 +47,17 @@ public class TestCompileMojo
      */
     private File outputDirectory;
 
+    /**
+     * Jar to write generated test class files into, instead of the output directory.
+     * The jar is not attached to the project, and can not be used together with stub generation.
+     *
+     * @parameter expression="${gmaven.testOutputJar}"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private File testOutputJar;
+
     /**
      * Flag to allow test compiliation to be skipped.
      *
@@ -64,6 +75,10 @@ public class TestCompileMojo
         return outputDirectory;
     }
 
+    protected File getOutputJar() {
+        return testOutputJar;
+    }
+
     protected List getSourceRoots() {
         return project.getTestCompileSourceRoots();
     }
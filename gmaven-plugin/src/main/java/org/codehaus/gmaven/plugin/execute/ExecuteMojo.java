@@ -16,9 +16,8 @@
 
 package org.codehaus.gmaven.plugin.execute;
 
-import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
-import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Settings;
@@ -26,7 +25,9 @@ import org.codehaus.gmaven.common.ArtifactItem;
 import org.codehaus.gmaven.feature.Component;
 import org.codehaus.gmaven.feature.Configuration;
 import org.codehaus.gmaven.plugin.ComponentMojoSupport;
+import org.codehaus.gmaven.runtime.ClassFactory;
 import org.codehaus.gmaven.runtime.ScriptExecutor;
+import org.codehaus.gmaven.runtime.loader.realm.RealmLeakDetector;
 import org.codehaus.gmaven.runtime.loader.realm.RealmManager;
 import org.codehaus.gmaven.runtime.support.util.ResourceLoaderImpl;
 import org.codehaus.gmaven.runtime.util.Callable;
@@ -38,14 +39,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -163,13 +164,52 @@ public class ExecuteMojo
     private boolean sanitizeErrors;
 
     /**
-     * @parameter expression="${session}"
+     * Compile the script using invokedynamic call sites.
+     * Requires the Groovy 2.0 runtime and a Java 7 or newer JVM; ignored by other runtimes.
+     *
+     * @parameter expression="${gmaven.execute.invokeDynamic}" default-value="false"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private boolean invokeDynamic;
+
+    /**
+     * Statically compile the script (as if annotated with <tt>@CompileStatic</tt>).
+     * If static type checking fails the script is compiled dynamically instead.
+     * Requires the Groovy 2.0 runtime; ignored by other runtimes.
+     *
+     * @parameter expression="${gmaven.execute.compileStatic}" default-value="false"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private boolean compileStatic;
+
+    /**
+     * Check that the realm of each execution becomes unreachable once released, to detect class loader leaks.
+     * One of: none, warn, fail.  Forces garbage collection after each execution, so only use it to diagnose leaks.
+     *
+     * @parameter expression="${gmaven.execute.leakCheck}" default-value="none"
+     * @since 1.6
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private String leakCheck = LEAK_CHECK_NONE;
+
+    public static final String LEAK_CHECK_NONE = "none";
+
+    public static final String LEAK_CHECK_WARN = "warn";
+
+    public static final String LEAK_CHECK_FAIL = "fail";
+
+    /**
+     * @parameter expression="${mojoExecution}"
      * @readonly
-     * @required
      *
      * @noinspection UnusedDeclaration
      */
-    private MavenSession session;
+    private MojoExecution mojoExecution;
 
     /**
      * @parameter expression="${settings}"
@@ -187,28 +227,29 @@ public class ExecuteMojo
      */
     private RealmManager realmManager;
 
+    /**
+     * @component
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private PrecompiledScripts precompiledScripts;
+
     public ExecuteMojo() {
         super(ScriptExecutor.KEY);
     }
 
+    protected void configure(final Configuration config) throws Exception {
+        assert config != null;
+
+        config.set(ClassFactory.Keys.INVOKE_DYNAMIC, invokeDynamic);
+        config.set(ClassFactory.Keys.COMPILE_STATIC, compileStatic);
+    }
+
     /**
      * @since 1.5
      */
     protected Set getClasspathIncludes() {
-        Set includes = new HashSet();
-        String[] items = classpathIncludes.trim().split(",");
-        for (int i=0; i<items.length; i++) {
-            items[i] = items[i].trim().toLowerCase();
-
-            // If we find none, then ignore everything else
-            if (CLASSPATH_INCLUDE_NONE.equals(items[i])) {
-                return new HashSet();
-            }
-
-            includes.add(items[i]);
-        }
-
-        return includes;
+        return ScriptClasspath.parseIncludes(classpathIncludes);
     }
 
     /**
@@ -218,51 +259,7 @@ public class ExecuteMojo
      * project artifacts, then in the order of plugin artifacts.
      */
     protected List getProjectClasspathElements() throws DependencyResolutionRequiredException {
-        Set results = new LinkedHashSet();
-
-        Set includes = getClasspathIncludes();
-
-        if (includes.contains(CLASSPATH_INCLUDE_ALL) || includes.contains(CLASSPATH_INCLUDE_RUNTIME)) {
-            for (Iterator i = project.getRuntimeClasspathElements().iterator(); i.hasNext();) {
-                String fileName = (String) i.next();
-                try {
-                    results.add(new File(fileName).getCanonicalPath());
-                }
-                catch (IOException e) {
-                    throw new RuntimeException("Classpath element not found: " + fileName, e);
-                }
-            }
-        }
-
-        if (includes.contains(CLASSPATH_INCLUDE_ALL) || includes.contains(CLASSPATH_INCLUDE_ARTIFACTS)) {
-            for (Iterator i = project.getArtifacts().iterator(); i.hasNext();) {
-                Artifact artifact = (Artifact) i.next();
-                if (artifact.getType().equals("jar") && artifact.getClassifier() == null) {
-                    try {
-                        results.add(artifact.getFile().getCanonicalPath());
-                    }
-                    catch (IOException e) {
-                        throw new RuntimeException("Maven artifact file not found: " + artifact, e);
-                    }
-                }
-            }
-        }
-
-        if (includes.contains(CLASSPATH_INCLUDE_ALL) || includes.contains(CLASSPATH_INCLUDE_PLUGINS)) {
-            for (Iterator i = pluginArtifacts.iterator(); i.hasNext();) {
-                Artifact artifact = (Artifact) i.next();
-                if (artifact.getType().equals("jar") && artifact.getClassifier() == null) {
-                    try {
-                        results.add(artifact.getFile().getCanonicalPath());
-                    }
-                    catch (IOException e) {
-                        throw new RuntimeException("Maven plugin-artifact file not found: " + artifact, e);
-                    }
-                }
-            }
-        }
-
-        return new ArrayList(results);
+        return ScriptClasspath.elements(project, pluginArtifacts, getClasspathIncludes(), classpathCache);
     }
 
     protected ArtifactItem[] getUserClassspathElements() {
@@ -278,43 +275,102 @@ public class ExecuteMojo
             throw new MojoExecutionException("Invalid value for 'source' parameter; contains nested elements");
         }
 
-        ClassSource classSource = ClassSource.forValue(escapeAsNeeded(source.configuration.getValue()));
+        String value = escapeAsNeeded(source.configuration.getValue());
+        ClassSource classSource = ClassSource.forValue(value);
         log.debug("Class source: {}", classSource);
 
-        ClassRealm realm = realmManager.createComponentRealm(provider(), createClassPath());
+        RealmLeakDetector detector = null;
+        if (!LEAK_CHECK_NONE.equalsIgnoreCase(leakCheck)) {
+            detector = new RealmLeakDetector();
+        }
+
+        execute(executor, classSource, value, detector);
 
-        ResourceLoader resourceLoader = new MojoResourceLoader(realm, classSource);
+        // Checked once execute() has returned, so nothing on the stack refers to the realm anymore
+        if (detector != null) {
+            checkForLeakedRealms(detector);
+        }
+    }
 
-        Configuration context = createContext();
+    private void execute(final ScriptExecutor executor, final ClassSource classSource, final String value, final RealmLeakDetector detector) throws Exception {
+        URL[] classPath = classPath();
 
-        log.debug("Executing '''{}''' w/context: {}", source, context);
+        // Use the precompiled script if there is one for the selected provider, precompiled classes are always dynamic
+        PrecompiledScripts.Entry precompiled = null;
+        if (classSource.body != null && !invokeDynamic && !compileStatic) {
+            precompiled = precompiledScripts.get(project, value);
 
-        Object result = executor.execute(classSource, realm, resourceLoader, context);
+            if (precompiled != null && precompiled.providerKey.equals(provider().key())) {
+                log.debug("Using precompiled script: {}", precompiled);
 
-        log.debug("Result: {}", result);
+                URL[] tmp = new URL[classPath.length + 1];
+                System.arraycopy(classPath, 0, tmp, 0, classPath.length);
+                tmp[classPath.length] = precompiled.directory.toURI().toURL();
+                classPath = tmp;
+            }
+            else {
+                precompiled = null;
+            }
+        }
 
-        realmManager.releaseComponentRealm(realm);
-    }
+        ClassRealm realm = realmManager.createComponentRealm(provider(), classPath);
 
-    protected String escapeAsNeeded(String string) {
-        StringBuilder sb = new StringBuilder(string);
-        int index = 0;
-        while (index > -1) {
-            int i = sb.indexOf("\\", index);
-            if (i > -1) {
-                String str = sb.substring(i, i + 2);
-                if (!str.contains("\\\\")) {
-                    sb.insert(i, "\\");
-                } else {
-                    sb.delete(i, i + 1);
+        try {
+            ResourceLoader resourceLoader = new MojoResourceLoader(realm, classSource, scriptpath);
+
+            Configuration context = createContext();
+
+            log.debug("Executing '''{}''' w/context: {}", source, context);
+
+            Class type = null;
+            if (precompiled != null) {
+                try {
+                    type = realm.loadClass(precompiled.className);
                 }
-                index = i + 3;
-            } else {
-                index = i;
+                catch (ClassNotFoundException e) {
+                    log.debug("Precompiled script class not found; compiling: {}", precompiled.className);
+                }
+            }
+
+            Object result;
+            if (type != null) {
+                result = executor.execute(type, context);
             }
+            else {
+                result = executor.execute(classSource, realm, resourceLoader, context);
+            }
+
+            log.debug("Result: {}", result);
+        }
+        finally {
+            realmManager.releaseComponentRealm(realm);
+
+            if (detector != null) {
+                detector.track(realm);
+            }
+        }
+    }
+
+    private void checkForLeakedRealms(final RealmLeakDetector detector) throws MojoExecutionException {
+        assert detector != null;
+
+        List leaked = detector.check();
+        if (leaked.isEmpty()) {
+            return;
         }
 
-        return sb.toString();
+        String execution = mojoExecution != null ? mojoExecution.getExecutionId() : "?";
+        String message = "Realm of execution '" + execution + "' in " + project.getId() + " is still reachable after release: " + leaked;
+
+        if (LEAK_CHECK_FAIL.equalsIgnoreCase(leakCheck)) {
+            throw new MojoExecutionException(message);
+        }
+
+        log.warn(message);
+    }
+
+    protected String escapeAsNeeded(String string) {
+        return Source.escape(string);
     }
 
     private Configuration createContext() {
@@ -347,17 +403,71 @@ public class ExecuteMojo
     // MojoResourceLoader
     //
 
-    private class MojoResourceLoader
+    static class MojoResourceLoader
         extends ResourceLoaderImpl
     {
         private final ClassSource classSource;
 
-        public MojoResourceLoader(final URLClassLoader classLoader, final ClassSource classSource) {
+        private final File[] scriptpath;
+
+        /**
+         * Names of the entries in each scriptpath directory looked at so far, by directory.
+         */
+        private final Map listings = new HashMap();
+
+        public MojoResourceLoader(final URLClassLoader classLoader, final ClassSource classSource, final File[] scriptpath) {
             super(classLoader);
 
             assert classSource != null;
 
             this.classSource = classSource;
+            this.scriptpath = scriptpath;
+        }
+
+        /**
+         * Find a script in the scriptpath.  Only the directory which would hold the resource is listed, once
+         * per execution, so nested directories are never walked.  The first scriptpath entry wins.
+         */
+        File findScript(final String resource) {
+            assert resource != null;
+
+            if (scriptpath == null) {
+                return null;
+            }
+
+            int i = resource.lastIndexOf('/');
+            String path = resource.substring(0, i + 1);
+            String name = resource.substring(i + 1);
+
+            for (int j=0; j<scriptpath.length; j++) {
+                assert scriptpath[j] != null;
+
+                File dir = new File(scriptpath[j], path);
+
+                if (list(dir).contains(name)) {
+                    File file = new File(dir, name);
+
+                    if (file.isFile()) {
+                        return file;
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        private Set list(final File dir) {
+            synchronized (listings) {
+                Set names = (Set) listings.get(dir);
+
+                if (names == null) {
+                    String[] files = dir.list();
+                    names = files != null ? new HashSet(Arrays.asList(files)) : Collections.EMPTY_SET;
+                    listings.put(dir, names);
+                }
+
+                return names;
+            }
         }
 
         protected URL resolve(final String className, final ClassLoader classLoader) throws MalformedURLException {
@@ -369,16 +479,10 @@ public class ExecuteMojo
             URL url;
 
             // First check the scriptpath
-            if (scriptpath != null) {
-                for (int i=0; i<scriptpath.length; i++) {
-                    assert scriptpath[i] != null;
+            File found = findScript(resource);
 
-                    File file = new File(scriptpath[i], resource);
-
-                    if (file.exists()) {
-                        return file.toURI().toURL();
-                    }
-                }
+            if (found != null) {
+                return found.toURI().toURL();
             }
 
             // Then look for a resource in the classpath
@@ -27,12 +27,17 @@ import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.descriptor.MojoDescriptor;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.path.PathTranslator;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
 import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
 import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluator;
 import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 import org.codehaus.plexus.util.introspection.ReflectionValueExtractor;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Custom expresion evaluation for Groovy executions.
@@ -53,15 +58,33 @@ public class ExpressionEvaluatorImpl
 
     private final String basedir;
 
+    /**
+     * Maximum number of parsed expressions to keep; scripts may evaluate any number of distinct strings.
+     */
+    static final int MAX_TEMPLATES = 256;
+
+    /**
+     * Expression -> Template, least recently used first.
+     */
+    private final Map templates = new LinkedHashMap(16, 0.75f, true) {
+        protected boolean removeEldestEntry(final Map.Entry eldest) {
+            return size() > MAX_TEMPLATES;
+        }
+    };
+
     public ExpressionEvaluatorImpl(final MavenSession context, final MavenProject project) {
+        this(context, project, lookupPathTranslator(context));
+    }
+
+    ExpressionEvaluatorImpl(final MavenSession context, final MavenProject project, final PathTranslator pathTranslator) {
         this.context = context;
         this.mojoExecution = new MojoExecution(new MojoDescriptor());
-        this.pathTranslator = lookupPathTranslator();
+        this.pathTranslator = pathTranslator;
         this.project = project;
         this.basedir = lookupBasedir();
     }
 
-    private PathTranslator lookupPathTranslator() {
+    private static PathTranslator lookupPathTranslator(final MavenSession context) {
         try {
             return (PathTranslator)context.lookup(PathTranslator.ROLE);
         }
@@ -98,40 +121,93 @@ public class ExpressionEvaluatorImpl
         }
     }
 
-    private Object doEvaluate(String expr) throws Exception {
+    private Object doEvaluate(final String expr) throws Exception {
         if (expr == null) {
             return null;
         }
 
+        FlightEvent event = FlightEvent.begin(FlightEvent.EXPRESSION_EVALUATION).file(expr);
+        try {
+            return template(expr).evaluate();
+        }
+        finally {
+            event.end();
+        }
+    }
+
+    /**
+     * Returns the parsed template for the given expression, parsing it only once.
+     */
+    private Template template(final String expr) {
+        assert expr != null;
+
+        synchronized (templates) {
+            Template template = (Template) templates.get(expr);
+
+            if (template == null) {
+                template = parse(expr);
+                templates.put(expr, template);
+            }
+
+            return template;
+        }
+    }
+
+    int templateCount() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    private Template parse(final String expr) {
+        assert expr != null;
+
         String expression = stripTokens(expr);
-        if (expression.equals(expr)) {
-            int index = expr.indexOf("${");
-            if (index >= 0) {
-                int lastIndex = expr.indexOf("}", index);
-                if (lastIndex >= 0) {
-                    String retVal = expr.substring(0, index);
-
-                    if (index > 0 && expr.charAt(index - 1) == '$') {
-                        retVal += expr.substring(index + 1, lastIndex + 1);
-                    }
-                    else {
-                        retVal += doEvaluate(expr.substring(index, lastIndex + 1));
-                    }
+        if (!expression.equals(expr)) {
+            return new ExpressionTemplate(expression);
+        }
+
+        int index = expr.indexOf("${");
+        if (index >= 0) {
+            int lastIndex = expr.indexOf("}", index);
+            if (lastIndex >= 0) {
+                List parts = new ArrayList();
 
-                    retVal += doEvaluate(expr.substring(lastIndex + 1));
-                    return retVal;
+                parts.add(new LiteralTemplate(expr.substring(0, index)));
+
+                if (index > 0 && expr.charAt(index - 1) == '$') {
+                    parts.add(new LiteralTemplate(expr.substring(index + 1, lastIndex + 1)));
+                }
+                else {
+                    parts.add(parse(expr.substring(index, lastIndex + 1)));
                 }
-            }
 
-            // Was not an expression
-            if (expression.indexOf("$$") > -1) {
-                return expression.replaceAll("\\$\\$", "\\$");
-            }
-            else {
-                return expression;
+                Template rest = parse(expr.substring(lastIndex + 1));
+
+                if (rest instanceof ConcatTemplate) {
+                    Template[] tmp = ((ConcatTemplate) rest).parts;
+                    for (int i = 0; i < tmp.length; i++) {
+                        parts.add(tmp[i]);
+                    }
+                }
+                else {
+                    parts.add(rest);
+                }
+
+                return new ConcatTemplate((Template[]) parts.toArray(new Template[parts.size()]));
             }
         }
 
+        // Was not an expression
+        if (expression.indexOf("$$") > -1) {
+            return new LiteralTemplate(expression.replaceAll("\\$\\$", "\\$"));
+        }
+        else {
+            return new LiteralTemplate(expression);
+        }
+    }
+
+    private Object evaluateExpression(final String expression) throws Exception {
         Object value = evaluateSpecials(expression);
 
         if (value == null) {
@@ -248,4 +324,71 @@ public class ExpressionEvaluatorImpl
 
         return new File(pathTranslator.alignToBaseDirectory(file.getPath(), basedir));
     }
+
+    //
+    // Templates
+    //
+
+    /**
+     * A pre-parsed expression; the structure mirrors the recursive string splitting which was previously
+     * performed on each evaluation.
+     */
+    private static interface Template
+    {
+        Object evaluate() throws Exception;
+    }
+
+    private static class LiteralTemplate
+        implements Template
+    {
+        private final String text;
+
+        public LiteralTemplate(final String text) {
+            assert text != null;
+
+            this.text = text;
+        }
+
+        public Object evaluate() {
+            return text;
+        }
+    }
+
+    private class ExpressionTemplate
+        implements Template
+    {
+        private final String expression;
+
+        public ExpressionTemplate(final String expression) {
+            assert expression != null;
+
+            this.expression = expression;
+        }
+
+        public Object evaluate() throws Exception {
+            return evaluateExpression(expression);
+        }
+    }
+
+    private static class ConcatTemplate
+        implements Template
+    {
+        private final Template[] parts;
+
+        public ConcatTemplate(final Template[] parts) {
+            assert parts != null;
+
+            this.parts = parts;
+        }
+
+        public Object evaluate() throws Exception {
+            StringBuffer buff = new StringBuffer();
+
+            for (int i = 0; i < parts.length; i++) {
+                buff.append(parts[i].evaluate());
+            }
+
+            return buff.toString();
+        }
+    }
 }
\ No newline at end of file
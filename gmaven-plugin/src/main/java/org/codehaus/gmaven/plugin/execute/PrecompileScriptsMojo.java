@@ -0,0 +1,451 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.execute;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.gmaven.common.ArtifactItem;
+import org.codehaus.gmaven.feature.Configuration;
+import org.codehaus.gmaven.feature.Provider;
+import org.codehaus.gmaven.plugin.ProviderMojoSupport;
+import org.codehaus.gmaven.runtime.ClassCompiler;
+import org.codehaus.gmaven.runtime.util.ClassSource;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precompiles the scripts of all <tt>execute</tt> goals in the reactor.
+ *
+ * Inline <tt>source</tt> bodies and the scripts found in each executions <tt>scriptpath</tt> are compiled
+ * in parallel with the selected provider, so that later executions only need to load and run them.
+ * Each script is compiled against the same classpath its execution would use.
+ * Scripts which fail to precompile are left to be compiled by their execution as usual.
+ *
+ * @goal precompile-scripts
+ * @aggregator
+ * @requiresDependencyResolution test
+ * @since 1.6
+ *
+ * @version $Id$
+ */
+public class PrecompileScriptsMojo
+    extends ProviderMojoSupport
+{
+    private static final String EXECUTE_GOAL = "execute";
+
+    private static final String CLASS_NAME_PREFIX = "gmaven_script_";
+
+    private static final String DEFAULT_ENCODING = "UTF-8";
+
+    /**
+     * The number of threads used to compile scripts.  Defaults to the number of available processors.
+     *
+     * @parameter expression="${gmaven.precompile.threads}" default-value="0"
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private int threads;
+
+    /**
+     * @parameter expression="${plugin.groupId}"
+     * @readonly
+     * @required
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private String pluginGroupId;
+
+    /**
+     * @parameter expression="${plugin.artifactId}"
+     * @readonly
+     * @required
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private String pluginArtifactId;
+
+    /**
+     * The plugin dependencies.
+     *
+     * @parameter expression="${plugin.artifacts}"
+     * @readonly
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private List pluginArtifacts;
+
+    /**
+     * @component
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private PrecompiledScripts precompiledScripts;
+
+    protected void doExecute() throws Exception {
+        List units = new ArrayList();
+
+        for (Iterator iter = session.getSortedProjects().iterator(); iter.hasNext();) {
+            MavenProject project = (MavenProject) iter.next();
+
+            collectUnits(project, units);
+        }
+
+        if (units.isEmpty()) {
+            log.info("No scripts found to precompile");
+            return;
+        }
+
+        Provider provider = provider();
+        List providerPath = createProviderClassPath(provider);
+
+        // Resolve on this thread, the artifact resolver is not safe to share with the compile threads
+        for (Iterator iter = units.iterator(); iter.hasNext();) {
+            Unit unit = (Unit) iter.next();
+
+            unit.classPath = createScriptClassPath(providerPath, unit);
+        }
+
+        int count = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.debug("Precompiling {} executions with {} threads", String.valueOf(units.size()), String.valueOf(count));
+
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+
+        try {
+            for (Iterator iter = units.iterator(); iter.hasNext();) {
+                Unit unit = (Unit) iter.next();
+
+                executor.execute(new CompileTask(provider, unit));
+            }
+        }
+        finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        }
+
+        int compiled = 0;
+
+        for (Iterator iter = units.iterator(); iter.hasNext();) {
+            Unit unit = (Unit) iter.next();
+
+            if (unit.compiled) {
+                precompiledScripts.add(unit.project, unit.source, new PrecompiledScripts.Entry(provider.key(), unit.classesDir, unit.className));
+                compiled++;
+            }
+        }
+
+        log.info("Precompiled " + compiled + " of " + units.size() + " script" + (units.size() > 1 ? "s" : ""));
+    }
+
+    /**
+     * Collect the inline scripts of all <tt>execute</tt> executions of this plugin for the given project.
+     */
+    private void collectUnits(final MavenProject project, final List units) throws IOException {
+        assert project != null;
+        assert units != null;
+
+        for (Iterator iter = project.getBuildPlugins().iterator(); iter.hasNext();) {
+            Plugin plugin = (Plugin) iter.next();
+
+            if (!pluginGroupId.equals(plugin.getGroupId()) || !pluginArtifactId.equals(plugin.getArtifactId())) {
+                continue;
+            }
+
+            for (Iterator execs = plugin.getExecutions().iterator(); execs.hasNext();) {
+                PluginExecution execution = (PluginExecution) execs.next();
+
+                if (!execution.getGoals().contains(EXECUTE_GOAL)) {
+                    continue;
+                }
+
+                Xpp3Dom config = mergeConfiguration((Xpp3Dom) execution.getConfiguration(), (Xpp3Dom) plugin.getConfiguration());
+                Unit unit = createUnit(project, execution.getId(), config);
+
+                if (unit != null) {
+                    log.debug("Found script in {} execution: {}", project.getId(), execution.getId());
+
+                    units.add(unit);
+                }
+            }
+        }
+    }
+
+    private Xpp3Dom mergeConfiguration(final Xpp3Dom dominant, final Xpp3Dom recessive) {
+        if (dominant == null) {
+            return recessive;
+        }
+
+        // Merging modifies the dominant, so work with a copy
+        return Xpp3Dom.mergeXpp3Dom(new Xpp3Dom(dominant), recessive);
+    }
+
+    Unit createUnit(final MavenProject project, final String executionId, final Xpp3Dom config) throws IOException {
+        assert project != null;
+        assert executionId != null;
+
+        if (config == null) {
+            return null;
+        }
+
+        Xpp3Dom child = config.getChild("source");
+
+        if (child == null || child.getChildCount() != 0 || child.getValue() == null) {
+            return null;
+        }
+
+        String source = Source.escape(child.getValue());
+
+        // Only inline bodies are precompiled, URL and File sources are left as-is
+        if (ClassSource.forValue(source).body == null) {
+            return null;
+        }
+
+        String className = CLASS_NAME_PREFIX + PrecompiledScripts.hash(source);
+        File baseDir = new File(project.getBuild().getDirectory(), "gmaven-scripts/" + executionId);
+        File sourceFile = new File(baseDir, "src/" + className + ".groovy");
+
+        // Scriptpath files are compiled along with the source, so both use the project encoding
+        String encoding = project.getProperties().getProperty("project.build.sourceEncoding", DEFAULT_ENCODING);
+
+        sourceFile.getParentFile().mkdirs();
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(sourceFile), encoding);
+        try {
+            writer.write(source);
+        }
+        finally {
+            writer.close();
+        }
+
+        Unit unit = new Unit(project, source, className, new File(baseDir, "classes"), encoding);
+        unit.sources.add(sourceFile);
+
+        Xpp3Dom includes = config.getChild("classpathIncludes");
+        unit.classpathIncludes = ScriptClasspath.parseIncludes(includes != null && includes.getValue() != null
+            ? includes.getValue() : ExecuteMojo.CLASSPATH_INCLUDE_ALL);
+        unit.classpath = createArtifactItems(config.getChild("classpath"));
+
+        Xpp3Dom scriptpath = config.getChild("scriptpath");
+
+        if (scriptpath != null) {
+            Xpp3Dom[] elements = scriptpath.getChildren();
+
+            for (int i=0; i<elements.length; i++) {
+                File dir = new File(elements[i].getValue());
+
+                if (!dir.isAbsolute()) {
+                    dir = new File(project.getBasedir(), elements[i].getValue());
+                }
+
+                collectScripts(dir, unit.sources);
+            }
+        }
+
+        return unit;
+    }
+
+    private void collectScripts(final File dir, final List files) {
+        assert dir != null;
+        assert files != null;
+
+        File[] children = dir.listFiles();
+
+        if (children == null) {
+            return;
+        }
+
+        Arrays.sort(children);
+
+        for (int i=0; i<children.length; i++) {
+            if (children[i].isDirectory()) {
+                collectScripts(children[i], files);
+            }
+            else if (children[i].getName().endsWith(".groovy")) {
+                files.add(children[i]);
+            }
+        }
+    }
+
+    private ArtifactItem[] createArtifactItems(final Xpp3Dom classpath) {
+        if (classpath == null) {
+            return new ArtifactItem[0];
+        }
+
+        Xpp3Dom[] elements = classpath.getChildren();
+        ArtifactItem[] items = new ArtifactItem[elements.length];
+
+        for (int i=0; i<elements.length; i++) {
+            items[i] = new ArtifactItem();
+            items[i].setGroupId(childValue(elements[i], "groupId"));
+            items[i].setArtifactId(childValue(elements[i], "artifactId"));
+            items[i].setVersion(childValue(elements[i], "version"));
+            items[i].setClassifier(childValue(elements[i], "classifier"));
+
+            String type = childValue(elements[i], "type");
+            if (type != null) {
+                items[i].setType(type);
+            }
+        }
+
+        return items;
+    }
+
+    private String childValue(final Xpp3Dom parent, final String name) {
+        Xpp3Dom child = parent.getChild(name);
+
+        return child != null ? child.getValue() : null;
+    }
+
+    /**
+     * The provider runtime comes first, as it does for executions.
+     */
+    private List createProviderClassPath(final Provider provider) {
+        assert provider != null;
+
+        List list = new ArrayList();
+
+        ClassLoader cl = provider.getClass().getClassLoader();
+
+        if (cl instanceof URLClassLoader) {
+            list.addAll(Arrays.asList(((URLClassLoader) cl).getURLs()));
+        }
+
+        return list;
+    }
+
+    /**
+     * Scripts are compiled against the same project and user classpath as their <tt>execute</tt> goal.
+     */
+    private URL[] createScriptClassPath(final List providerPath, final Unit unit) throws Exception {
+        assert providerPath != null;
+        assert unit != null;
+
+        List list = new ArrayList(providerPath);
+
+        List elements = ScriptClasspath.elements(unit.project, pluginArtifacts, unit.classpathIncludes, classpathCache);
+
+        for (Iterator iter = elements.iterator(); iter.hasNext();) {
+            list.add(classpathCache.getURL((String) iter.next()));
+        }
+
+        File[] files = resolveArtifactFiles(unit.project, unit.classpath);
+
+        for (int i=0; i<files.length; i++) {
+            list.add(classpathCache.getURL(files[i].getPath()));
+        }
+
+        return (URL[]) list.toArray(new URL[list.size()]);
+    }
+
+    //
+    // Unit
+    //
+
+    static class Unit
+    {
+        public final MavenProject project;
+
+        public final String source;
+
+        public final String className;
+
+        public final File classesDir;
+
+        public final String encoding;
+
+        public final List sources = new ArrayList();
+
+        public Set classpathIncludes;
+
+        public ArtifactItem[] classpath;
+
+        public URL[] classPath;
+
+        public volatile boolean compiled;
+
+        public Unit(final MavenProject project, final String source, final String className, final File classesDir, final String encoding) {
+            this.project = project;
+            this.source = source;
+            this.className = className;
+            this.classesDir = classesDir;
+            this.encoding = encoding;
+        }
+    }
+
+    //
+    // CompileTask
+    //
+
+    private class CompileTask
+        implements Runnable
+    {
+        private final Provider provider;
+
+        private final Unit unit;
+
+        public CompileTask(final Provider provider, final Unit unit) {
+            this.provider = provider;
+            this.unit = unit;
+        }
+
+        public void run() {
+            try {
+                Configuration config = new Configuration();
+                config.set(ClassCompiler.Keys.SOURCE_ENCODING, unit.encoding);
+
+                ClassCompiler compiler = (ClassCompiler) provider.feature(ClassCompiler.KEY).create(config);
+
+                // Remove any classes left over from a previous build
+                FileUtils.deleteDirectory(unit.classesDir);
+                unit.classesDir.mkdirs();
+                compiler.setTargetDirectory(unit.classesDir);
+
+                if (unit.classPath.length != 0) {
+                    compiler.setClassPath(unit.classPath);
+                }
+
+                for (Iterator iter = unit.sources.iterator(); iter.hasNext();) {
+                    compiler.add((File) iter.next());
+                }
+
+                compiler.compile();
+
+                unit.compiled = true;
+            }
+            catch (Throwable t) {
+                log.warn("Unable to precompile script for {}; it will be compiled on execution: {}", unit.project.getId(), t.toString());
+                log.debug("Precompile failure", t);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.execute;
+
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Support for communication between script precompilation and execution.
+ *
+ * @version $Id$
+ *
+ * @since 1.6
+ */
+public class PrecompiledScripts
+{
+    private Map entries = new HashMap();
+
+    public synchronized void add(final MavenProject project, final String source, final Entry entry) {
+        assert source != null;
+        assert entry != null;
+
+        entries.put(key(project, source), entry);
+    }
+
+    public synchronized Entry get(final MavenProject project, final String source) {
+        assert source != null;
+
+        return (Entry) entries.get(key(project, source));
+    }
+
+    private String key(final MavenProject project, final String source) {
+        assert project != null;
+
+        return project.getId() + "#" + hash(source);
+    }
+
+    /**
+     * Returns a stable hash of the given script source.
+     */
+    public static String hash(final String source) {
+        assert source != null;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(source.getBytes("UTF-8"));
+
+            StringBuffer buff = new StringBuffer();
+
+            for (int i=0; i<bytes.length; i++) {
+                String hex = Integer.toHexString(bytes[i] & 0xff);
+
+                if (hex.length() == 1) {
+                    buff.append('0');
+                }
+
+                buff.append(hex);
+            }
+
+            return buff.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new Error(e);
+        }
+        catch (UnsupportedEncodingException e) {
+            throw new Error(e);
+        }
+    }
+
+    //
+    // Entry
+    //
+
+    public static class Entry
+    {
+        public final String providerKey;
+
+        public final File directory;
+
+        public final String className;
+
+        public Entry(final String providerKey, final File directory, final String className) {
+            assert providerKey != null;
+            assert directory != null;
+            assert className != null;
+
+            this.providerKey = providerKey;
+            this.directory = directory;
+            this.className = className;
+        }
+
+        public String toString() {
+            return "Entry" +
+                    "[ providerKey=" + providerKey +
+                    ", directory=" + directory +
+                    ", className=" + className +
+                    " ]";
+        }
+    }
+}
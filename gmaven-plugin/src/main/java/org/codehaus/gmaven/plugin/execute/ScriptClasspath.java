@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.execute;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.gmaven.plugin.ClasspathCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Assembles the project classpath of script executions, shared by <tt>execute</tt> and <tt>precompile-scripts</tt>.
+ *
+ * @version $Id$
+ *
+ * @since 1.6
+ */
+final class ScriptClasspath
+{
+    private ScriptClasspath() {
+        // empty
+    }
+
+    /**
+     * Parses a <tt>classpathIncludes</tt> value; <tt>none</tt> anywhere in the list wins.
+     */
+    static Set parseIncludes(final String value) {
+        assert value != null;
+
+        Set includes = new HashSet();
+        String[] items = value.trim().split(",");
+        for (int i=0; i<items.length; i++) {
+            items[i] = items[i].trim().toLowerCase();
+
+            // If we find none, then ignore everything else
+            if (ExecuteMojo.CLASSPATH_INCLUDE_NONE.equals(items[i])) {
+                return new HashSet();
+            }
+
+            includes.add(items[i]);
+        }
+
+        return includes;
+    }
+
+    /**
+     * Runtime classpath elements come first, so that legacy behavior is not modified.  Additional elements
+     * are added first in the order of project artifacts, then in the order of plugin artifacts.
+     */
+    static List elements(final MavenProject project, final List pluginArtifacts, final Set includes, final ClasspathCache cache)
+        throws DependencyResolutionRequiredException
+    {
+        assert project != null;
+        assert includes != null;
+        assert cache != null;
+
+        // Gather the raw elements first, the canonical classpath is reused while they stay the same
+        List runtimeElements = new ArrayList();
+        List artifactFiles = new ArrayList();
+        List pluginFiles = new ArrayList();
+
+        if (includes.contains(ExecuteMojo.CLASSPATH_INCLUDE_ALL) || includes.contains(ExecuteMojo.CLASSPATH_INCLUDE_RUNTIME)) {
+            runtimeElements.addAll(project.getRuntimeClasspathElements());
+        }
+
+        if (includes.contains(ExecuteMojo.CLASSPATH_INCLUDE_ALL) || includes.contains(ExecuteMojo.CLASSPATH_INCLUDE_ARTIFACTS)) {
+            collectJarFiles(project.getArtifacts(), artifactFiles);
+        }
+
+        if (pluginArtifacts != null && (includes.contains(ExecuteMojo.CLASSPATH_INCLUDE_ALL) || includes.contains(ExecuteMojo.CLASSPATH_INCLUDE_PLUGINS))) {
+            collectJarFiles(pluginArtifacts, pluginFiles);
+        }
+
+        List inputs = new ArrayList(runtimeElements);
+        inputs.add(null);
+        inputs.addAll(artifactFiles);
+        inputs.add(null);
+        inputs.addAll(pluginFiles);
+
+        String mode = new TreeSet(includes).toString();
+        List cached = cache.getClasspath(project, mode, inputs);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        Set results = new LinkedHashSet();
+
+        for (Iterator i = runtimeElements.iterator(); i.hasNext();) {
+            String fileName = (String) i.next();
+            try {
+                results.add(cache.getCanonicalPath(new File(fileName)));
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Classpath element not found: " + fileName, e);
+            }
+        }
+
+        for (Iterator i = artifactFiles.iterator(); i.hasNext();) {
+            File file = (File) i.next();
+            try {
+                results.add(cache.getCanonicalPath(file));
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Maven artifact file not found: " + file, e);
+            }
+        }
+
+        for (Iterator i = pluginFiles.iterator(); i.hasNext();) {
+            File file = (File) i.next();
+            try {
+                results.add(cache.getCanonicalPath(file));
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Maven plugin-artifact file not found: " + file, e);
+            }
+        }
+
+        return cache.putClasspath(project, mode, inputs, new ArrayList(results));
+    }
+
+    private static void collectJarFiles(final Collection artifacts, final List files) {
+        for (Iterator i = artifacts.iterator(); i.hasNext();) {
+            Artifact artifact = (Artifact) i.next();
+            if (artifact.getType().equals("jar") && artifact.getClassifier() == null) {
+                files.add(artifact.getFile());
+            }
+        }
+    }
+}
@@ -49,6 +49,15 @@ public class Source
     }
 
     protected String escapeAsNeeded(String string) {
+        return escape(string);
+    }
+
+    /**
+     * Escapes back-slashes in the given source the same way for all consumers of <tt>source</tt> values.
+     *
+     * @since 1.6
+     */
+    public static String escape(final String string) {
         StringBuilder sb = new StringBuilder(string);
         int index = 0;
         while (index > -1) {
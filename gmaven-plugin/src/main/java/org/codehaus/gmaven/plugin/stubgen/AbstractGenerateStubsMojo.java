@@ -122,7 +122,7 @@ public abstract class AbstractGenerateStubsMojo
 
         compiler.setTargetDirectory(getOutputDirectory());
 
-        compiler.setClassPath(createClassPath());
+        compiler.setClassPath(classPath());
 
         //
         // TODO: Bridge mojo config to component config
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.tools;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.gmaven.feature.Provider;
+import org.codehaus.gmaven.plugin.ProviderMojoSupport;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+import org.codehaus.plexus.util.cli.Commandline;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLClassLoader;
+
+/**
+ * Builds a class data sharing (AppCDS) archive for the selected Groovy runtime provider.
+ *
+ * A JVM is forked on the providers classpath to run a representative workload, which dumps the list of
+ * loaded classes; a second JVM then dumps those classes into a shared archive.  JVMs started on the same
+ * classpath with <tt>-XX:SharedArchiveFile</tt> map the archive in instead of loading the classes again.
+ * Use <tt>-Dgmaven.runtime=&lt;key&gt;</tt> to build the archive of each runtime.
+ *
+ * The forked JVMs must be Java 10 or newer, which the JVM running Maven usually is not; point
+ * <tt>gmaven.cds.java</tt> at such a JVM.  Nothing in GMaven uses the archive yet, it has to be passed to
+ * the JVMs which should use it by hand.
+ *
+ * @goal cds-archive
+ * @requiresProject false
+ * @since 1.6
+ *
+ * @version $Id$
+ */
+public class CdsArchiveMojo
+    extends ProviderMojoSupport
+{
+    /**
+     * Compiles a class through the normal compilation unit and runs some closures.
+     */
+    private static final String DEFAULT_WORKLOAD =
+        "def script = new GroovyShell().parse('class Sample { def sum(list) { list.inject(0) { a, b -> a + b } } }; new Sample().sum([1, 2, 3])'); " +
+        "assert script.run() == 6";
+
+    private static final String WORKLOAD_ENCODING = "UTF-8";
+
+    /**
+     * The directory where the class list and archive are written.
+     *
+     * @parameter expression="${gmaven.cds.outputDirectory}" default-value="${project.build.directory}/gmaven-cds"
+     * @required
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private File outputDirectory;
+
+    /**
+     * The Java executable used to fork the JVMs, which must be Java 10 or newer.  Defaults to the one running Maven.
+     *
+     * @parameter expression="${gmaven.cds.java}"
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private String javaExecutable;
+
+    /**
+     * The Groovy script run to decide which classes are archived.
+     *
+     * @parameter expression="${gmaven.cds.workload}"
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private String workload = DEFAULT_WORKLOAD;
+
+    protected void doExecute() throws Exception {
+        Provider provider = provider();
+
+        if (!(provider.getClass().getClassLoader() instanceof URLClassLoader)) {
+            throw new MojoExecutionException("Unable to determine the classpath of provider: " + provider);
+        }
+
+        String classPath = toClassPath(((URLClassLoader) provider.getClass().getClassLoader()).getURLs());
+
+        String java = javaExecutable != null ? javaExecutable
+            : System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        requireJavaVersion(java);
+
+        outputDirectory.mkdirs();
+
+        File classList = new File(outputDirectory, "gmaven-runtime-" + provider.key() + ".classlist");
+        File archive = new File(outputDirectory, "gmaven-runtime-" + provider.key() + ".jsa");
+        File script = new File(outputDirectory, "gmaven-runtime-" + provider.key() + "-workload.groovy");
+
+        // The workload goes through a file, as arguments are quoted for the shell by the command line
+        writeWorkload(script, workload);
+
+        log.info("Dumping class list for provider {}: {}", provider.key(), classList);
+
+        fork(java, createClassListArguments(classList, classPath, script));
+
+        log.info("Dumping shared archive: {}", archive);
+
+        fork(java, new String[] {
+            "-Xshare:dump",
+            "-XX:SharedClassListFile=" + classList.getAbsolutePath(),
+            "-XX:SharedArchiveFile=" + archive.getAbsolutePath(),
+            "-cp", classPath,
+        });
+
+        log.info("Start JVMs on the provider classpath with: -XX:SharedArchiveFile={}", archive.getAbsolutePath());
+    }
+
+    static void writeWorkload(final File file, final String workload) throws IOException {
+        assert file != null;
+        assert workload != null;
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), WORKLOAD_ENCODING);
+        try {
+            writer.write(workload);
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+    static String[] createClassListArguments(final File classList, final String classPath, final File script) {
+        assert classList != null;
+        assert classPath != null;
+        assert script != null;
+
+        return new String[] {
+            "-Xshare:off",
+            "-XX:DumpLoadedClassList=" + classList.getAbsolutePath(),
+            "-cp", classPath,
+            "groovy.ui.GroovyMain",
+            "-c", WORKLOAD_ENCODING,
+            script.getAbsolutePath(),
+        };
+    }
+
+    private String toClassPath(final URL[] urls) throws UnsupportedEncodingException {
+        assert urls != null;
+
+        StringBuffer buff = new StringBuffer();
+
+        for (int i=0; i<urls.length; i++) {
+            if (i > 0) {
+                buff.append(File.pathSeparatorChar);
+            }
+            buff.append(new File(URLDecoder.decode(urls[i].getPath().replaceAll("\\+", "%2B"), "UTF-8")).getAbsolutePath());
+        }
+
+        return buff.toString();
+    }
+
+    /**
+     * Fails with a clear message unless the given Java executable is Java 10 or newer, which class lists need.
+     */
+    private void requireJavaVersion(final String java) throws MojoExecutionException {
+        assert java != null;
+
+        final String[] version = new String[1];
+
+        StreamConsumer consumer = new StreamConsumer() {
+            public void consumeLine(final String line) {
+                if (version[0] == null && parseMajorVersion(line) != -1) {
+                    version[0] = line;
+                }
+            }
+        };
+
+        fork(java, new String[] { "-version" }, consumer, consumer);
+
+        if (version[0] == null || parseMajorVersion(version[0]) < 10) {
+            throw new MojoExecutionException("Building a shared archive needs Java 10 or newer, but " + java + " is: "
+                + (version[0] != null ? version[0] : "unknown") + "; set gmaven.cds.java to a newer java executable");
+        }
+    }
+
+    /**
+     * Returns the major version of a <tt>java -version</tt> line, or -1 if the line does not tell it.
+     */
+    static int parseMajorVersion(final String line) {
+        assert line != null;
+
+        int start = line.indexOf(" version \"");
+        if (start == -1) {
+            return -1;
+        }
+
+        start += " version \"".length();
+        int end = line.indexOf('"', start);
+        if (end == -1) {
+            return -1;
+        }
+
+        String version = line.substring(start, end);
+
+        // Up to Java 8 versions look like 1.8.0_202
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+
+        int i = 0;
+        while (i < version.length() && Character.isDigit(version.charAt(i))) {
+            i++;
+        }
+
+        return i > 0 ? Integer.parseInt(version.substring(0, i)) : -1;
+    }
+
+    private void fork(final String java, final String[] args) throws MojoExecutionException {
+        StreamConsumer out = new StreamConsumer() {
+            public void consumeLine(final String line) {
+                log.debug(line);
+            }
+        };
+
+        StreamConsumer err = new StreamConsumer() {
+            public void consumeLine(final String line) {
+                log.warn(line);
+            }
+        };
+
+        fork(java, args, out, err);
+    }
+
+    private void fork(final String java, final String[] args, final StreamConsumer out, final StreamConsumer err) throws MojoExecutionException {
+        assert java != null;
+        assert args != null;
+
+        Commandline cl = new Commandline();
+        cl.setExecutable(java);
+        cl.addArguments(args);
+
+        log.debug("Forking: {}", cl);
+
+        int status;
+        try {
+            status = CommandLineUtils.executeCommandLine(cl, out, err);
+        }
+        catch (CommandLineException e) {
+            throw new MojoExecutionException("Failed to fork JVM: " + e.getMessage(), e);
+        }
+
+        if (status != 0) {
+            throw new MojoExecutionException("Forked JVM exited with status: " + status);
+        }
+    }
+}
@@ -61,8 +61,11 @@ public class ConsoleMojo
 
         ClassRealm realm = realmManager.createComponentRealm(provider(), createClassPath());
 
-        console.execute(realm);
-
-        realmManager.releaseComponentRealm(realm);
+        try {
+            console.execute(realm);
+        }
+        finally {
+            realmManager.releaseComponentRealm(realm);
+        }
     }
 }
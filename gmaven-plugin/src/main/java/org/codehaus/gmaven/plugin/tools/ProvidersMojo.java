@@ -22,6 +22,11 @@ import org.codehaus.gmaven.feature.ProviderManager;
 import org.codehaus.gmaven.feature.ProviderRegistry;
 import org.codehaus.gmaven.feature.ProviderSelector;
 import org.codehaus.gmaven.plugin.ProviderMojoSupport;
+import org.codehaus.gmaven.runtime.loader.DefaultProviderManager;
+import org.codehaus.gmaven.runtime.loader.ProviderMetrics;
+import org.codehaus.gmaven.runtime.loader.realm.DefaultRealmManager;
+import org.codehaus.gmaven.runtime.loader.realm.RealmManager;
+import org.codehaus.gmaven.runtime.loader.realm.RealmMetrics;
 
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -42,6 +47,13 @@ import java.util.Map;
 public class ProvidersMojo
     extends ProviderMojoSupport
 {
+    /**
+     * @component
+     *
+     * @noinspection UnusedDeclaration
+     */
+    private RealmManager realmManager;
+
     protected void doExecute() throws Exception {
         if (log.isTraceEnabled()) {
             logEnvironment();
@@ -104,6 +116,48 @@ public class ProvidersMojo
         }
 
         log.info("");
+
+        // Metrics are only collected by the default managers
+        if (manager instanceof DefaultProviderManager) {
+            logMetrics(((DefaultProviderManager) manager).metrics());
+        }
+        if (realmManager instanceof DefaultRealmManager) {
+            logMetrics(((DefaultRealmManager) realmManager).metrics());
+        }
+
+        log.info("");
+    }
+
+    private void logMetrics(final ProviderMetrics providerMetrics) {
+        assert providerMetrics != null;
+
+        log.info("Provider metrics:");
+        log.info("    Selections: {} ({} cached)", String.valueOf(providerMetrics.getSelections()), String.valueOf(providerMetrics.getSelectionCacheHits()));
+        logTimes("    Selection time", providerMetrics.getSelectionTimes());
+    }
+
+    private void logMetrics(final RealmMetrics realmMetrics) {
+        assert realmMetrics != null;
+
+        log.info("Realm metrics:");
+        logTimes("    Resolution time", realmMetrics.getResolutionTimes());
+        log.info("    Resolutions from classpath index: {}", String.valueOf(realmMetrics.getClassPathIndexHits()));
+        logTimes("    Provider realm time", realmMetrics.getProviderRealmTimes());
+        log.info("    Provider realms shared: {}", String.valueOf(realmMetrics.getProviderRealmsShared()));
+        log.info("    Component realms: {} created, {} released", String.valueOf(realmMetrics.getComponentRealmsCreated()), String.valueOf(realmMetrics.getComponentRealmsReleased()));
+        log.info("    Classes loaded: {}", String.valueOf(realmMetrics.getClassesLoaded()));
+        log.info("    Class lookup misses cached: {}", String.valueOf(realmMetrics.getClassLookupMissesCached()));
+        log.info("    Jar indexes: {} hits, {} misses", String.valueOf(realmMetrics.getJarIndexHits()), String.valueOf(realmMetrics.getJarIndexMisses()));
+    }
+
+    private void logTimes(final String label, final Map times) {
+        assert label != null;
+        assert times != null;
+
+        for (Iterator iter = times.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            log.info("{} '{}': " + entry.getValue() + "ms", label, entry.getKey());
+        }
     }
 
     protected void logEnvironment() {
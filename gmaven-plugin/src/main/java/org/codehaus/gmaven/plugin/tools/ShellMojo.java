@@ -139,10 +139,13 @@ public class ShellMojo
 
         Shell shell = (Shell) component;
 
-        ClassRealm realm = realmManager.createComponentRealm(provider(), createClassPath());
+        ClassRealm realm = realmManager.createComponentRealm(provider(), classPath());
 
-        shell.execute(realm);
-
-        realmManager.releaseComponentRealm(realm);
+        try {
+            shell.execute(realm);
+        }
+        finally {
+            realmManager.releaseComponentRealm(realm);
+        }
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import junit.framework.TestCase;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tests for the {@link ClasspathCache} class.
+ *
+ * @version $Id$
+ */
+public class ClasspathCacheTest
+    extends TestCase
+{
+    private ClasspathCache cache;
+
+    private MavenProject project;
+
+    protected void setUp() throws Exception {
+        cache = new ClasspathCache();
+
+        Model model = new Model();
+        model.setGroupId("example");
+        model.setArtifactId("example");
+        model.setVersion("1");
+
+        project = new MavenProject(model);
+    }
+
+    private void fill() throws Exception {
+        List inputs = Collections.singletonList("a");
+
+        cache.getCanonicalPath(new File("."));
+        cache.getURL("a.jar");
+        cache.putClasspath(project, "all", inputs, inputs);
+        cache.putArtifactFile(project, "g:a:1", new File("a.jar"));
+    }
+
+    public void testCachedValues() throws Exception {
+        List inputs = Collections.singletonList("a");
+
+        assertSame(cache.getURL("a.jar"), cache.getURL("a.jar"));
+        assertEquals(new File(".").getCanonicalPath(), cache.getCanonicalPath(new File(".")));
+
+        assertNull(cache.getClasspath(project, "all", inputs));
+        List classpath = cache.putClasspath(project, "all", inputs, inputs);
+        assertSame(classpath, cache.getClasspath(project, "all", inputs));
+        assertNull(cache.getClasspath(project, "all", Collections.singletonList("b")));
+        assertNull(cache.getClasspath(project, "none", inputs));
+    }
+
+    public void testSameSessionKeepsValues() throws Exception {
+        cache.setSessionKey(new Date(1000));
+        fill();
+
+        // The per module copy of a parallel build
+        cache.setSessionKey(new Date(1000));
+        assertEquals(new File("a.jar"), cache.getArtifactFile(project, "g:a:1"));
+        assertNotNull(cache.getClasspath(project, "all", Collections.singletonList("a")));
+    }
+
+    public void testNewSessionClearsValues() throws Exception {
+        cache.setSessionKey(new Date(1000));
+        fill();
+
+        cache.setSessionKey(new Date(2000));
+        assertNull(cache.getArtifactFile(project, "g:a:1"));
+        assertNull(cache.getClasspath(project, "all", Collections.singletonList("a")));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import junit.framework.TestCase;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for the {@link CompileState} class.
+ *
+ * @version $Id$
+ */
+public class CompileStateTest
+    extends TestCase
+{
+    private File dir;
+
+    private CompileState state;
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("state", "");
+        dir.delete();
+        dir.mkdirs();
+
+        state = new CompileState();
+    }
+
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private MavenProject project(final String name) {
+        Model model = new Model();
+        model.setArtifactId(name);
+
+        File basedir = new File(dir, name);
+        basedir.mkdirs();
+
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File(basedir, "pom.xml"));
+
+        return project;
+    }
+
+    private File source(final MavenProject project, final String name) throws Exception {
+        File file = new File(project.getBasedir(), name);
+        FileUtils.fileWrite(file.getPath(), name);
+        return file;
+    }
+
+    public void testForcedSourcesAreSortedAndCached() throws Exception {
+        MavenProject project = project("a");
+        File b = source(project, "B.java");
+        File a = source(project, "A.java");
+
+        state.addForcedCompilationSource(project, b);
+        state.addForcedCompilationSource(project, a);
+
+        Set files = state.getForcedCompilationSources(project);
+        assertEquals(Arrays.asList(new File[] { a, b }), new ArrayList(files));
+        assertSame(files, state.getForcedCompilationSources(project));
+
+        try {
+            files.add(a);
+            fail();
+        }
+        catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    public void testRefreshFollowsDeletedAndCreatedFiles() throws Exception {
+        MavenProject project = project("a");
+        File a = source(project, "A.java");
+        File b = new File(project.getBasedir(), "B.java");
+
+        state.addForcedCompilationTestSource(project, a);
+        state.addForcedCompilationTestSource(project, b);
+        Set files = state.getForcedCompilationTestSources(project);
+        assertEquals(new HashSet(Arrays.asList(new File[] { a })), files);
+
+        // Only checked again once refreshed
+        a.delete();
+        assertSame(files, state.getForcedCompilationTestSources(project));
+
+        state.refreshForcedSources(project);
+        assertTrue(state.getForcedCompilationTestSources(project).isEmpty());
+
+        source(project, "B.java");
+        state.refreshForcedSources(project);
+        assertEquals(new HashSet(Arrays.asList(new File[] { b })), state.getForcedCompilationTestSources(project));
+    }
+
+    public void testProjectsAreSeparate() throws Exception {
+        MavenProject a = project("a");
+        MavenProject b = project("b");
+
+        state.addForcedCompilationSource(a, source(a, "A.java"));
+
+        assertEquals(1, state.getForcedCompilationSources(a).size());
+        assertTrue(state.getForcedCompilationSources(b).isEmpty());
+        assertTrue(state.getForcedCompilationTestSources(a).isEmpty());
+    }
+
+    public void testSameDirectorySharesState() throws Exception {
+        MavenProject project = project("a");
+        state.addForcedCompilationSource(project, source(project, "A.java"));
+
+        // Another path to the same base directory
+        MavenProject other = new MavenProject(new Model());
+        other.setFile(new File(new File(dir, "a/../a"), "pom.xml"));
+
+        assertEquals(state.getForcedCompilationSources(project), state.getForcedCompilationSources(other));
+    }
+
+    public void testMissingBasedir() throws Exception {
+        MavenProject project = new MavenProject(new Model());
+        project.setFile(new File(dir, "missing/pom.xml"));
+
+        try {
+            state.getForcedCompilationSources(project);
+            fail();
+        }
+        catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+
+    public void testConcurrentAdds() throws Exception {
+        final MavenProject[] projects = { project("a"), project("b") };
+        final List files = new ArrayList();
+
+        for (int i = 0; i < 200; i++) {
+            files.add(source(projects[i % 2], "S" + i + ".java"));
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List failures = new ArrayList();
+        Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+
+                        for (int i = offset; i < files.size(); i += 4) {
+                            MavenProject project = projects[i % 2];
+                            state.addForcedCompilationSource(project, (File) files.get(i));
+                            assertTrue(state.getForcedCompilationSources(project).contains(files.get(i)));
+                        }
+                    }
+                    catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+
+        start.countDown();
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+
+        assertEquals(failures.toString(), 0, failures.size());
+
+        Set a = state.getForcedCompilationSources(projects[0]);
+        Set b = state.getForcedCompilationSources(projects[1]);
+        assertEquals(100, a.size());
+        assertEquals(100, b.size());
+
+        for (Iterator iter = files.iterator(); iter.hasNext();) {
+            File file = (File) iter.next();
+            assertTrue(a.contains(file) ^ b.contains(file));
+        }
+    }
+}
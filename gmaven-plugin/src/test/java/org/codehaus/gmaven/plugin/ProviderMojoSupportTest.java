@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import junit.framework.TestCase;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for the {@link ProviderMojoSupport} class.
+ *
+ * @version $Id$
+ */
+public class ProviderMojoSupportTest
+    extends TestCase
+{
+    private void put(final Map map, final String groupId, final String artifactId, final String version) {
+        Artifact artifact = new DefaultArtifact(groupId, artifactId, VersionRange.createFromVersion(version),
+            "runtime", "jar", null, new DefaultArtifactHandler("jar"));
+
+        map.put(groupId + ":" + artifactId, artifact);
+    }
+
+    public void testIndexQualifierIgnoresOrder() throws Exception {
+        Map a = new LinkedHashMap();
+        put(a, "org.codehaus.gmaven", "gmaven-plugin", "1.6");
+        put(a, "junit", "junit", "3.8.2");
+
+        Map b = new LinkedHashMap();
+        put(b, "junit", "junit", "3.8.2");
+        put(b, "org.codehaus.gmaven", "gmaven-plugin", "1.6");
+
+        assertEquals(16, ProviderMojoSupport.createIndexQualifier(a).length());
+        assertEquals(ProviderMojoSupport.createIndexQualifier(a), ProviderMojoSupport.createIndexQualifier(b));
+    }
+
+    public void testIndexQualifierDependsOnArtifacts() throws Exception {
+        Map a = new HashMap();
+        put(a, "org.codehaus.gmaven", "gmaven-plugin", "1.6");
+
+        Map b = new HashMap(a);
+        put(b, "junit", "junit", "3.8.2");
+
+        Map c = new HashMap();
+        put(c, "org.codehaus.gmaven", "gmaven-plugin", "1.7");
+
+        String qualifier = ProviderMojoSupport.createIndexQualifier(a);
+        assertFalse(qualifier.equals(ProviderMojoSupport.createIndexQualifier(b)));
+        assertFalse(qualifier.equals(ProviderMojoSupport.createIndexQualifier(c)));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import junit.framework.TestCase;
+import org.codehaus.gmaven.feature.Version;
+import org.codehaus.gmaven.feature.support.ProviderSupport;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Tests for the {@link ProviderWarmup} class.
+ *
+ * @version $Id$
+ */
+public class ProviderWarmupTest
+    extends TestCase
+{
+    public void testWarmsUpOncePerProvider() throws Exception {
+        ProviderImpl provider = new ProviderImpl("1.6");
+
+        Thread thread = ProviderWarmup.start(provider);
+        assertNotNull(thread);
+        thread.join();
+
+        assertNull(ProviderWarmup.start(provider));
+    }
+
+    public void testWarmsUpEachProvider() throws Exception {
+        ProviderWarmup.start(new ProviderImpl("1.7")).join();
+
+        // A provider of a new container, with the same key
+        Thread thread = ProviderWarmup.start(new ProviderImpl("1.7"));
+        assertNotNull(thread);
+        thread.join();
+    }
+
+    private static class ProviderImpl
+        extends ProviderSupport
+    {
+        ProviderImpl(final String key) {
+            super(key);
+        }
+
+        protected Version detectVersion() {
+            return null;
+        }
+
+        protected Map detectFeatures() {
+            return Collections.EMPTY_MAP;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import junit.framework.TestCase;
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the {@link SourceScan} class, against <tt>DirectoryScanner</tt>.
+ *
+ * @version $Id$
+ */
+public class SourceScanTest
+    extends TestCase
+{
+    private static final String[] FILES = {
+        "Foo.groovy",
+        "Bar.java",
+        "notes.txt",
+        "a/Qux.groovy",
+        "a/Qux.groovy~",
+        "a/CVS/Entries.groovy",
+        "a/b/Baz.groovy",
+        "a/b/c/Deep.java",
+        "skip/Skip.groovy",
+    };
+
+    private File dir;
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("scan", "");
+        dir.delete();
+        dir.mkdirs();
+
+        for (int i = 0; i < FILES.length; i++) {
+            File file = new File(dir, FILES[i]);
+            file.getParentFile().mkdirs();
+            FileUtils.fileWrite(file.getPath(), FILES[i]);
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private static Set set(final String[] values) {
+        return new HashSet(Arrays.asList(values));
+    }
+
+    private void assertParity(final String[] includes, final String[] excludes) throws Exception {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(dir);
+        scanner.setIncludes(includes);
+        scanner.setExcludes(excludes);
+        scanner.addDefaultExcludes();
+        scanner.scan();
+
+        List expected = Arrays.asList(scanner.getIncludedFiles());
+        Collections.sort(expected);
+
+        assertEquals(expected, SourceScan.scan(dir, set(includes), set(excludes)).getPaths());
+    }
+
+    public void testIncludes() throws Exception {
+        assertParity(new String[] { "**/*.groovy" }, new String[0]);
+        assertParity(new String[] { "**/*.groovy", "**/*.java" }, new String[0]);
+        assertParity(new String[] { "*.groovy" }, new String[0]);
+        assertParity(new String[] { "a/b/**" }, new String[0]);
+        assertParity(new String[0], new String[0]);
+    }
+
+    public void testExcludes() throws Exception {
+        assertParity(new String[] { "**/*.groovy" }, new String[] { "skip/**" });
+        assertParity(new String[] { "**/*" }, new String[] { "**/b/*", "*.txt" });
+        assertParity(new String[] { "**/*.java" }, new String[] { "**/*.java" });
+    }
+
+    public void testSeparatorsAndTrailingSlash() throws Exception {
+        assertParity(new String[] { "a/" }, new String[0]);
+        assertParity(new String[] { " a\\b\\*.groovy " }, new String[] { "a\\b/c/" });
+    }
+
+    public void testNormalize() throws Exception {
+        String sep = File.separator;
+        String[] normalized = SourceScan.normalize(set(new String[] { " a/b/ " }));
+
+        assertEquals(1, normalized.length);
+        assertEquals("a" + sep + "b" + sep + "**", normalized[0]);
+
+        normalized = SourceScan.normalize(set(new String[] { "a\\b/*.groovy" }));
+        assertEquals("a" + sep + "b" + sep + "*.groovy", normalized[0]);
+    }
+
+    public void testCouldHoldIncluded() throws Exception {
+        String[][] patterns = {
+            { "**/*.groovy" },
+            { "a/b/**" },
+            { "*.groovy" },
+            { "a/*/c/*.java", "skip/" },
+        };
+        String[] names = { "a", "skip", "a" + File.separator + "b", "a" + File.separator + "CVS", "other" };
+
+        for (int i = 0; i < patterns.length; i++) {
+            String[] includes = SourceScan.normalize(set(patterns[i]));
+            ExposedScanner scanner = new ExposedScanner(dir, patterns[i]);
+
+            for (int j = 0; j < names.length; j++) {
+                assertEquals(Arrays.asList(patterns[i]) + " " + names[j],
+                    scanner.couldHoldIncluded(names[j]), SourceScan.couldHoldIncluded(includes, names[j]));
+            }
+        }
+    }
+
+    public void testIsCurrent() throws Exception {
+        long old = System.currentTimeMillis() - 10 * SourceScan.GRANULARITY;
+        File[] dirs = { dir, new File(dir, "a"), new File(dir, "a/b"), new File(dir, "a/b/c"), new File(dir, "a/CVS"), new File(dir, "skip") };
+        for (int i = 0; i < dirs.length; i++) {
+            dirs[i].setLastModified(old);
+        }
+
+        SourceScan scan = SourceScan.scan(dir, set(new String[] { "**/*.groovy" }), new HashSet());
+        assertTrue(scan.isCurrent());
+
+        FileUtils.fileWrite(new File(dir, "a/b/Added.groovy").getPath(), "");
+        dirs[2].setLastModified(old + SourceScan.GRANULARITY);
+        assertFalse(scan.isCurrent());
+
+        scan = scan.rescan();
+        assertTrue(scan.getPaths().contains("a" + File.separator + "b" + File.separator + "Added.groovy"));
+        assertTrue(scan.isCurrent());
+    }
+
+    public void testRecentlyModifiedIsNeverCurrent() throws Exception {
+        // The directories were just written, so a change in the same timestamp tick could go unseen
+        SourceScan scan = SourceScan.scan(dir, set(new String[] { "**/*.groovy" }), new HashSet());
+
+        assertFalse(scan.isCurrent());
+    }
+
+    /**
+     * Exposes the directory pruning check of <tt>DirectoryScanner</tt>.
+     */
+    private static class ExposedScanner
+        extends DirectoryScanner
+    {
+        ExposedScanner(final File basedir, final String[] includes) {
+            setBasedir(basedir);
+            setIncludes(includes);
+            scan();
+        }
+
+        public boolean couldHoldIncluded(final String name) {
+            return super.couldHoldIncluded(name);
+        }
+    }
+}
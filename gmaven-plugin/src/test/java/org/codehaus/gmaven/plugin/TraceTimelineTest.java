@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin;
+
+import junit.framework.TestCase;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Tests for the {@link TraceTimeline} class.
+ *
+ * @version $Id$
+ */
+public class TraceTimelineTest
+    extends TestCase
+{
+    private File file;
+
+    private TraceTimeline timeline;
+
+    protected void setUp() throws Exception {
+        file = File.createTempFile("trace-", ".json");
+        timeline = new TraceTimeline(file);
+        FlightEvent.addListener(timeline);
+    }
+
+    protected void tearDown() throws Exception {
+        timeline.close();
+        file.delete();
+    }
+
+    private static String read(final File file) throws IOException {
+        InputStream input = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            int offset = 0;
+            while (offset < bytes.length) {
+                offset += input.read(bytes, offset, bytes.length - offset);
+            }
+            return new String(bytes, "UTF-8");
+        }
+        finally {
+            input.close();
+        }
+    }
+
+    private static int count(final String text, final String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i != -1; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    public void testWritesQueuedEventsOnClose() throws Exception {
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread("builder-" + i) {
+                public void run() {
+                    for (int j = 0; j < 100; j++) {
+                        FlightEvent.begin(FlightEvent.CLASS_COMPILE).file("G" + j + ".groovy").phase("compile").end();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+        }
+
+        timeline.close();
+
+        String text = read(file);
+        assertTrue(text.startsWith("[\n"));
+        assertTrue(text.endsWith("\n]\n"));
+        assertEquals(400, count(text, "\"ph\":\"X\""));
+        assertEquals(4, count(text, "\"thread_name\""));
+        assertEquals(1, count(text, "\"builder-0\""));
+    }
+
+    public void testSkipsExpressionEvaluations() throws Exception {
+        FlightEvent.begin(FlightEvent.EXPRESSION_EVALUATION).end();
+        FlightEvent.begin(FlightEvent.SCRIPT_RUN).file("say \"hi\"").end();
+
+        timeline.close();
+
+        String text = read(file);
+        assertEquals(1, count(text, "\"ph\":\"X\""));
+        assertEquals(1, count(text, "\"file\":\"say \\\"hi\\\"\""));
+    }
+
+    public void testIgnoresEventsAfterClose() throws Exception {
+        timeline.close();
+        long length = file.length();
+
+        FlightEvent.begin(FlightEvent.SCRIPT_RUN).end();
+        timeline.close();
+
+        assertEquals(length, file.length());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.compile;
+
+import junit.framework.TestCase;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.codehaus.gmaven.plugin.CompileState;
+import org.codehaus.gmaven.runtime.ClassCompiler;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the {@link AbstractCompileMojo} class.
+ *
+ * @version $Id$
+ */
+public class AbstractCompileMojoTest
+    extends TestCase
+{
+    private File dir;
+
+    private File sourceDir;
+
+    private File outputDir;
+
+    private final List added = new ArrayList();
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("compile", "");
+        dir.delete();
+        dir.mkdirs();
+
+        sourceDir = new File(dir, "src/main/groovy");
+        outputDir = new File(dir, "target/classes");
+        sourceDir.mkdirs();
+        outputDir.mkdirs();
+
+        FileUtils.fileWrite(new File(sourceDir, "A.groovy").getPath(), "class A {}");
+        FileUtils.fileWrite(new File(sourceDir, "B.groovy").getPath(), "class B {}");
+
+        // A is up to date in the output directory
+        File classFile = new File(outputDir, "A.class");
+        FileUtils.fileWrite(classFile.getPath(), "");
+        classFile.setLastModified(System.currentTimeMillis() + 60000);
+    }
+
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private ClassCompiler compiler() {
+        return (ClassCompiler) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { ClassCompiler.class }, new InvocationHandler()
+        {
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                if (method.getName().equals("add")) {
+                    added.add(args[0]);
+                }
+                else if (method.getName().equals("compile")) {
+                    return new Integer(added.size());
+                }
+                return null;
+            }
+        });
+    }
+
+    private void compile(final File outputJar) throws Exception {
+        MojoImpl mojo = new MojoImpl(outputJar);
+
+        FileSet sources = new FileSet();
+        sources.setDirectory(sourceDir.getPath());
+        sources.addInclude("**/*.groovy");
+
+        mojo.compile(compiler(), new FileSet[] { sources });
+    }
+
+    public void testCompilesStaleSourcesIntoDirectory() throws Exception {
+        compile(null);
+
+        assertEquals(Collections.singletonList(new File(sourceDir, "B.groovy")), added);
+    }
+
+    public void testCompilesAllSourcesIntoJar() throws Exception {
+        compile(new File(dir, "target/classes.jar"));
+
+        assertEquals(2, added.size());
+        assertTrue(added.contains(new File(sourceDir, "A.groovy")));
+        assertTrue(added.contains(new File(sourceDir, "B.groovy")));
+    }
+
+    private class MojoImpl
+        extends AbstractCompileMojo
+    {
+        private final File outputJar;
+
+        MojoImpl(final File outputJar) {
+            this.outputJar = outputJar;
+
+            Model model = new Model();
+            model.setArtifactId("example");
+
+            project = new MavenProject(model);
+            project.setFile(new File(dir, "pom.xml"));
+
+            compileState = new CompileState();
+        }
+
+        protected Set getForcedCompileSources() {
+            return Collections.EMPTY_SET;
+        }
+
+        protected File getOutputJar() {
+            return outputJar;
+        }
+
+        protected File getOutputDirectory() {
+            return outputDir;
+        }
+
+        protected List getSourceRoots() {
+            return new ArrayList();
+        }
+
+        protected FileSet[] getDefaultSources() {
+            return new FileSet[0];
+        }
+
+        protected FileSet[] getSources() {
+            return null;
+        }
+    }
+}
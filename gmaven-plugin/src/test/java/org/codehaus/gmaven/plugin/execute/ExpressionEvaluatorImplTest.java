@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.execute;
+
+import junit.framework.TestCase;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Tests for the {@link ExpressionEvaluatorImpl} class.
+ *
+ * @version $Id$
+ */
+public class ExpressionEvaluatorImplTest
+    extends TestCase
+{
+    private MavenProject project;
+
+    private ExpressionEvaluatorImpl evaluator;
+
+    protected void setUp() throws Exception {
+        Model model = new Model();
+        model.setArtifactId("example");
+        model.addProperty("name", "world");
+        model.addProperty("greeting", "hello ${name}");
+
+        project = new MavenProject(model);
+        evaluator = new ExpressionEvaluatorImpl(null, project, null);
+    }
+
+    public void testLiteral() throws Exception {
+        assertEquals("plain text", evaluator.evaluate("plain text"));
+    }
+
+    public void testProperty() throws Exception {
+        assertEquals("world", evaluator.evaluate("${name}"));
+    }
+
+    public void testNestedProperty() throws Exception {
+        assertEquals("hello world", evaluator.evaluate("${greeting}"));
+    }
+
+    public void testConcatenation() throws Exception {
+        assertEquals("a-world-example-b", evaluator.evaluate("a-${name}-${project.artifactId}-b"));
+    }
+
+    public void testEscaped() throws Exception {
+        assertEquals("${name} is world", evaluator.evaluate("$${name} is ${name}"));
+    }
+
+    public void testCachedTemplateSeesChangedProperties() throws Exception {
+        assertEquals("world", evaluator.evaluate("${name}"));
+
+        project.getProperties().setProperty("name", "moon");
+
+        assertEquals("moon", evaluator.evaluate("${name}"));
+    }
+
+    public void testTemplateCacheIsBounded() throws Exception {
+        for (int i = 0; i < ExpressionEvaluatorImpl.MAX_TEMPLATES * 4; i++) {
+            evaluator.evaluate("value " + i);
+        }
+
+        assertEquals(ExpressionEvaluatorImpl.MAX_TEMPLATES, evaluator.templateCount());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.execute;
+
+import junit.framework.TestCase;
+import org.codehaus.gmaven.runtime.util.ClassSource;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Tests for the {@link ExecuteMojo.MojoResourceLoader} class.
+ *
+ * @version $Id$
+ */
+public class MojoResourceLoaderTest
+    extends TestCase
+{
+    private File dir;
+
+    private File first;
+
+    private File second;
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("scriptpath", "");
+        dir.delete();
+
+        first = new File(dir, "first");
+        second = new File(dir, "second");
+        new File(first, "a/b").mkdirs();
+        new File(second, "a").mkdirs();
+    }
+
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private ExecuteMojo.MojoResourceLoader createLoader() throws Exception {
+        URLClassLoader cl = new URLClassLoader(new URL[0], null);
+
+        return new ExecuteMojo.MojoResourceLoader(cl, ClassSource.forValue("println 'hi'"), new File[] { first, second });
+    }
+
+    private File touch(final File parent, final String path) throws Exception {
+        File file = new File(parent, path);
+        FileUtils.fileWrite(file.getPath(), "");
+        return file;
+    }
+
+    public void testFindsNestedScript() throws Exception {
+        File script = touch(first, "a/b/C.groovy");
+
+        assertEquals(script, createLoader().findScript("/a/b/C.groovy"));
+    }
+
+    public void testFirstEntryWins() throws Exception {
+        File script = touch(first, "a/D.groovy");
+        touch(second, "a/D.groovy");
+        File other = touch(second, "a/E.groovy");
+
+        ExecuteMojo.MojoResourceLoader loader = createLoader();
+        assertEquals(script, loader.findScript("/a/D.groovy"));
+        assertEquals(other, loader.findScript("/a/E.groovy"));
+    }
+
+    public void testIgnoresDirectories() throws Exception {
+        new File(first, "a/F.groovy").mkdirs();
+
+        assertNull(createLoader().findScript("/a/F.groovy"));
+    }
+
+    public void testMissingDirectory() throws Exception {
+        assertNull(createLoader().findScript("/no/such/G.groovy"));
+    }
+
+    public void testScriptsAddedLaterAreFoundByLaterExecutions() throws Exception {
+        assertNull(createLoader().findScript("/a/H.groovy"));
+
+        File script = touch(second, "a/H.groovy");
+
+        assertEquals(script, createLoader().findScript("/a/H.groovy"));
+        assertEquals(script.toURI().toURL(), createLoader().loadResource("a.H"));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.execute;
+
+import junit.framework.TestCase;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+/**
+ * Tests for the {@link PrecompileScriptsMojo} class.
+ *
+ * @version $Id$
+ */
+public class PrecompileScriptsMojoTest
+    extends TestCase
+{
+    private static final String SOURCE = "println 'grüße 日本'";
+
+    private File dir;
+
+    private MavenProject project;
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("precompile", "");
+        dir.delete();
+        dir.mkdirs();
+
+        Build build = new Build();
+        build.setDirectory(new File(dir, "target").getPath());
+
+        Model model = new Model();
+        model.setArtifactId("example");
+        model.setBuild(build);
+
+        project = new MavenProject(model);
+        project.setFile(new File(dir, "pom.xml"));
+    }
+
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private Xpp3Dom config(final String source) {
+        Xpp3Dom config = new Xpp3Dom("configuration");
+
+        if (source != null) {
+            Xpp3Dom child = new Xpp3Dom("source");
+            child.setValue(source);
+            config.addChild(child);
+        }
+
+        return config;
+    }
+
+    private String read(final File file, final String encoding) throws Exception {
+        InputStream input = new FileInputStream(file);
+        try {
+            return IOUtil.toString(input, encoding);
+        }
+        finally {
+            input.close();
+        }
+    }
+
+    public void testNoSource() throws Exception {
+        assertNull(new PrecompileScriptsMojo().createUnit(project, "default", config(null)));
+    }
+
+    public void testSourceIsWrittenAsUtf8ByDefault() throws Exception {
+        PrecompileScriptsMojo.Unit unit = new PrecompileScriptsMojo().createUnit(project, "default", config(SOURCE));
+
+        assertNotNull(unit);
+        assertEquals("UTF-8", unit.encoding);
+        assertEquals("gmaven_script_" + PrecompiledScripts.hash(SOURCE), unit.className);
+        assertEquals(1, unit.sources.size());
+        assertEquals(SOURCE, read((File) unit.sources.get(0), "UTF-8"));
+    }
+
+    public void testSourceUsesProjectEncoding() throws Exception {
+        project.getProperties().setProperty("project.build.sourceEncoding", "UTF-16");
+
+        PrecompileScriptsMojo.Unit unit = new PrecompileScriptsMojo().createUnit(project, "default", config(SOURCE));
+
+        assertEquals("UTF-16", unit.encoding);
+        assertEquals(SOURCE, read((File) unit.sources.get(0), "UTF-16"));
+    }
+
+    public void testClasspathConfiguration() throws Exception {
+        Xpp3Dom config = config(SOURCE);
+
+        Xpp3Dom includes = new Xpp3Dom("classpathIncludes");
+        includes.setValue("runtime, Plugins");
+        config.addChild(includes);
+
+        Xpp3Dom classpath = new Xpp3Dom("classpath");
+        Xpp3Dom element = new Xpp3Dom("element");
+        Xpp3Dom groupId = new Xpp3Dom("groupId");
+        groupId.setValue("junit");
+        element.addChild(groupId);
+        Xpp3Dom artifactId = new Xpp3Dom("artifactId");
+        artifactId.setValue("junit");
+        element.addChild(artifactId);
+        classpath.addChild(element);
+        config.addChild(classpath);
+
+        PrecompileScriptsMojo.Unit unit = new PrecompileScriptsMojo().createUnit(project, "default", config);
+
+        assertEquals(2, unit.classpathIncludes.size());
+        assertTrue(unit.classpathIncludes.contains(ExecuteMojo.CLASSPATH_INCLUDE_RUNTIME));
+        assertTrue(unit.classpathIncludes.contains(ExecuteMojo.CLASSPATH_INCLUDE_PLUGINS));
+        assertEquals(1, unit.classpath.length);
+        assertEquals("junit", unit.classpath[0].getArtifactId());
+        assertEquals("jar", unit.classpath[0].getType());
+        assertNull(unit.classpath[0].getVersion());
+    }
+
+    public void testClasspathIncludesDefaultToAll() throws Exception {
+        PrecompileScriptsMojo.Unit unit = new PrecompileScriptsMojo().createUnit(project, "default", config(SOURCE));
+
+        assertEquals(1, unit.classpathIncludes.size());
+        assertTrue(unit.classpathIncludes.contains(ExecuteMojo.CLASSPATH_INCLUDE_ALL));
+        assertEquals(0, unit.classpath.length);
+    }
+
+    public void testScriptpath() throws Exception {
+        File scripts = new File(dir, "scripts");
+        new File(scripts, "b").mkdirs();
+        FileUtils.fileWrite(new File(scripts, "a.groovy").getPath(), "");
+        FileUtils.fileWrite(new File(scripts, "b/c.groovy").getPath(), "");
+        FileUtils.fileWrite(new File(scripts, "b/d.txt").getPath(), "");
+
+        Xpp3Dom config = config(SOURCE);
+        Xpp3Dom scriptpath = new Xpp3Dom("scriptpath");
+        Xpp3Dom element = new Xpp3Dom("element");
+        element.setValue("scripts");
+        scriptpath.addChild(element);
+        config.addChild(scriptpath);
+
+        PrecompileScriptsMojo.Unit unit = new PrecompileScriptsMojo().createUnit(project, "default", config);
+
+        assertEquals(3, unit.sources.size());
+        assertEquals(new File(scripts, "a.groovy"), unit.sources.get(1));
+        assertEquals(new File(scripts, "b/c.groovy"), unit.sources.get(2));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.execute;
+
+import junit.framework.TestCase;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.gmaven.plugin.ClasspathCache;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the {@link ScriptClasspath} class.
+ *
+ * @version $Id$
+ */
+public class ScriptClasspathTest
+    extends TestCase
+{
+    public void testParseIncludes() throws Exception {
+        Set includes = ScriptClasspath.parseIncludes(" Runtime ,artifacts");
+
+        assertEquals(2, includes.size());
+        assertTrue(includes.contains(ExecuteMojo.CLASSPATH_INCLUDE_RUNTIME));
+        assertTrue(includes.contains(ExecuteMojo.CLASSPATH_INCLUDE_ARTIFACTS));
+    }
+
+    public void testParseIncludesNone() throws Exception {
+        assertTrue(ScriptClasspath.parseIncludes("all,none").isEmpty());
+    }
+
+    public void testElements() throws Exception {
+        File dir = new File(System.getProperty("java.io.tmpdir"));
+
+        Build build = new Build();
+        build.setOutputDirectory(new File(dir, "classes").getPath());
+
+        Model model = new Model();
+        model.setGroupId("example");
+        model.setArtifactId("example");
+        model.setVersion("1");
+        model.setBuild(build);
+
+        MavenProject project = new MavenProject(model);
+        project.setArtifacts(Collections.EMPTY_SET);
+        ClasspathCache cache = new ClasspathCache();
+
+        List none = ScriptClasspath.elements(project, null, ScriptClasspath.parseIncludes("none"), cache);
+        assertTrue(none.isEmpty());
+
+        List all = ScriptClasspath.elements(project, null, ScriptClasspath.parseIncludes("all"), cache);
+        assertEquals(1, all.size());
+        assertEquals(new File(dir, "classes").getCanonicalPath(), all.get(0));
+
+        // Same inputs give the cached classpath
+        assertSame(all, ScriptClasspath.elements(project, null, ScriptClasspath.parseIncludes("all"), cache));
+    }
+}
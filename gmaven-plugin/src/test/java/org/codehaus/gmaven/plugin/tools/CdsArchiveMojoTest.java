@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.plugin.tools;
+
+import junit.framework.TestCase;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the {@link CdsArchiveMojo} class.
+ *
+ * @version $Id$
+ */
+public class CdsArchiveMojoTest
+    extends TestCase
+{
+    private static final String WORKLOAD = "def s = \"it's a \\\"test\\\" with $dollar & spaces; `ticks`\"\nprintln 'grüße'";
+
+    public void testWorkloadIsWrittenAsIs() throws Exception {
+        File file = File.createTempFile("workload", ".groovy");
+        try {
+            CdsArchiveMojo.writeWorkload(file, WORKLOAD);
+
+            assertEquals(WORKLOAD, FileUtils.fileRead(file.getPath(), "UTF-8"));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    public void testWorkloadIsPassedAsFile() throws Exception {
+        File script = new File("target/workload.groovy");
+
+        List args = Arrays.asList(CdsArchiveMojo.createClassListArguments(new File("list"), "a.jar", script));
+
+        assertFalse(args.contains("-e"));
+        assertEquals(script.getAbsolutePath(), args.get(args.size() - 1));
+        assertEquals("UTF-8", args.get(args.indexOf("-c") + 1));
+        assertEquals("a.jar", args.get(args.indexOf("-cp") + 1));
+    }
+
+    public void testParseMajorVersion() throws Exception {
+        assertEquals(8, CdsArchiveMojo.parseMajorVersion("java version \"1.8.0_202\""));
+        assertEquals(7, CdsArchiveMojo.parseMajorVersion("openjdk version \"1.7.0_80\""));
+        assertEquals(10, CdsArchiveMojo.parseMajorVersion("openjdk version \"10-ea\" 2018-03-20"));
+        assertEquals(17, CdsArchiveMojo.parseMajorVersion("openjdk version \"17.0.2\" 2022-01-18"));
+        assertEquals(-1, CdsArchiveMojo.parseMajorVersion("OpenJDK Runtime Environment (build 17.0.2+8)"));
+        assertEquals(-1, CdsArchiveMojo.parseMajorVersion("Picked up JAVA_TOOL_OPTIONS: -Dversion \""));
+    }
+}
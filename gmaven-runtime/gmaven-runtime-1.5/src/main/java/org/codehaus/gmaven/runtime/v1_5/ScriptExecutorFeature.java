@@ -16,7 +16,9 @@
 
 package org.codehaus.gmaven.runtime.v1_5;
 
+import groovy.lang.Binding;
 import groovy.lang.Closure;
+import groovy.lang.Script;
 import groovy.util.AntBuilder;
 import org.apache.tools.ant.BuildLogger;
 import org.codehaus.gmaven.feature.Component;
@@ -28,6 +30,8 @@ import org.codehaus.gmaven.runtime.support.ScriptExecutorSupport;
 import org.codehaus.gmaven.runtime.util.Callable;
 import org.codehaus.gmaven.runtime.util.MagicAttribute;
 
+import java.util.Map;
+
 /**
  * Provides the script execution feature.
  *
@@ -103,5 +107,22 @@ public class ScriptExecutorFeature
 
             throw new ComponentException("Unknown magic attribute: " + attr);
         }
+
+        protected boolean isScript(final Object target) {
+            return target instanceof Script;
+        }
+
+        protected void bindScript(final Object target, final Map variables) {
+            assert target != null;
+            assert variables != null;
+
+            ((Script) target).setBinding(new Binding(variables));
+        }
+
+        protected Object doRunScript(final Object target) {
+            assert target != null;
+
+            return ((Script) target).run();
+        }
     }
 }
\ No newline at end of file
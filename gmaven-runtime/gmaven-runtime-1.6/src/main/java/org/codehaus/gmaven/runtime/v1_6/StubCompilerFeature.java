@@ -25,6 +25,7 @@ import org.codehaus.gmaven.runtime.support.stubgen.model.SourceDef;
 import org.codehaus.gmaven.runtime.support.stubgen.parser.SourceType;
 import org.codehaus.gmaven.runtime.support.stubgen.render.Renderer;
 import org.codehaus.gmaven.runtime.support.stubgen.render.RendererFactory;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
 import org.codehaus.gmaven.runtime.v1_6.stubgen.ModelFactoryImpl;
 import org.codehaus.gmaven.runtime.v1_6.stubgen.RendererFactoryImpl;
 
@@ -67,7 +68,8 @@ public class StubCompilerFeature
             super(StubCompilerFeature.this);
         }
 
-        public int compile() throws Exception {
+        @Override
+        protected int doCompile() throws Exception {
             if (sources.isEmpty()) {
                 log.debug("No sources added to compile; skipping");
 
@@ -94,33 +96,45 @@ public class StubCompilerFeature
             assert url != null;
 
             SourceDef model;
-            if (config.contains(SOURCE_ENCODING)) {
-                model = modelFactory.create(url, config.get(SOURCE_ENCODING, (String)null));
-            } else {
-                model = modelFactory.create(url);
+            FlightEvent event = FlightEvent.begin(FlightEvent.STUB_RENDER).file(url).phase("model");
+            try {
+                if (config.contains(SOURCE_ENCODING)) {
+                    model = modelFactory.create(url, config.get(SOURCE_ENCODING, (String)null));
+                } else {
+                    model = modelFactory.create(url);
+                }
+            }
+            finally {
+                event.end();
             }
 
-            Set renderers = rendererFactory.create(model);
+            event = FlightEvent.begin(FlightEvent.STUB_RENDER).file(url).phase("render");
+            try {
+                Set renderers = rendererFactory.create(model);
 
-            Iterator iter = renderers.iterator();
+                Iterator iter = renderers.iterator();
 
-            int count = 0;
+                int count = 0;
 
-            while (iter.hasNext()) {
-                Renderer renderer = (Renderer)iter.next();
+                while (iter.hasNext()) {
+                    Renderer renderer = (Renderer)iter.next();
 
-                Writer writer = createWriter(renderer, getTargetDirectory());
+                    Writer writer = createWriter(renderer, getTargetDirectory());
 
-                try {
-                    renderer.render(writer);
-                    count ++;
-                }
-                finally {
-                    writer.close();
+                    try {
+                        renderer.render(writer);
+                        count ++;
+                    }
+                    finally {
+                        writer.close();
+                    }
                 }
-            }
 
-            return count;
+                return count;
+            }
+            finally {
+                event.end();
+            }
         }
 
         private PrintWriter createWriter(final Renderer renderer, final File outputDir) throws IOException {
@@ -21,7 +21,12 @@ import org.codehaus.gmaven.feature.Component;
 import org.codehaus.gmaven.feature.support.FeatureSupport;
 import org.codehaus.gmaven.runtime.StubCompiler;
 import org.codehaus.gmaven.runtime.support.CompilerSupport;
+import org.codehaus.gmaven.runtime.support.PhaseEvents;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
+import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.ProcessingUnit;
 
 import java.net.URL;
 import java.security.CodeSource;
@@ -71,7 +76,8 @@ public class StubCompilerFeature
             }
         }
 
-        public int compile() throws Exception {
+        @Override
+        protected int doCompile() throws Exception {
             if (sources.isEmpty()) {
                 log.debug("No sources added to compile; skipping");
                 return 0;
@@ -111,7 +117,23 @@ public class StubCompilerFeature
             }
 
             configure();
-            cu.compile();
+
+            final PhaseEvents events = new PhaseEvents(FlightEvent.STUB_RENDER);
+            cu.setProgressCallback(new CompilationUnit.ProgressCallback() {
+                public void call(final ProcessingUnit context, final int phase) {
+                    if (phase < Phases.ALL) {
+                        events.phase(Phases.getDescription(phase + 1));
+                    }
+                }
+            });
+
+            events.phase(Phases.getDescription(Phases.INITIALIZATION));
+            try {
+                cu.compile();
+            }
+            finally {
+                events.end();
+            }
 
             int count = cu.getStubCount();
             log.debug("Compiled {} stubs", String.valueOf(count));
@@ -20,9 +20,14 @@ import groovy.lang.GroovyClassLoader;
 import org.codehaus.gmaven.feature.Component;
 import org.codehaus.gmaven.feature.support.FeatureSupport;
 import org.codehaus.gmaven.runtime.ClassCompiler;
+import org.codehaus.gmaven.runtime.support.ClassJar;
 import org.codehaus.gmaven.runtime.support.CompilerSupport;
+import org.codehaus.gmaven.runtime.support.PhaseEvents;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
 import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.ProcessingUnit;
 import org.codehaus.groovy.tools.GroovyClass;
 
 import java.net.URL;
@@ -99,7 +104,8 @@ public class ClassCompilerFeature
             }
         }
 
-        public int compile() throws Exception {
+        @Override
+        protected int doCompile() throws Exception {
             if (sources.isEmpty()) {
                 log.debug("No sources added to compile; skipping");
 
@@ -150,10 +156,44 @@ public class ClassCompilerFeature
                 cu.addSource(url);
             }
 
-            cu.compile();
+            final PhaseEvents events = new PhaseEvents(FlightEvent.CLASS_COMPILE);
+            cu.setProgressCallback(new CompilationUnit.ProgressCallback() {
+                public void call(final ProcessingUnit context, final int phase) {
+                    if (phase < Phases.ALL) {
+                        events.phase(Phases.getDescription(phase + 1));
+                    }
+                }
+            });
+
+            ClassJar jar = ClassJar.forConfig(config);
+
+            events.phase(Phases.getDescription(Phases.INITIALIZATION));
+            try {
+                if (jar != null) {
+                    // Stop short of the output phase, classes go into the jar instead of the target directory
+                    cu.compile(Phases.CLASS_GENERATION);
+                }
+                else {
+                    cu.compile();
+                }
+            }
+            finally {
+                events.end();
+            }
 
             List classes = cu.getClasses();
 
+            if (jar != null) {
+                for (Iterator iter = classes.iterator(); iter.hasNext();) {
+                    GroovyClass type = (GroovyClass)iter.next();
+                    jar.add(type.getName(), type.getBytes());
+                }
+
+                log.debug("Writing classes to: {}", jar.getFile());
+
+                jar.write();
+            }
+
             if (log.isDebugEnabled()) {
                 log.debug("Compiled {} classes:", String.valueOf(classes.size()));
 
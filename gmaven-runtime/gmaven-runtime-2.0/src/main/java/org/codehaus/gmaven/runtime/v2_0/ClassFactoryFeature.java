@@ -19,6 +19,7 @@ package org.codehaus.gmaven.runtime.v2_0;
 import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyCodeSource;
 import groovy.lang.GroovyResourceLoader;
+import groovy.transform.CompileStatic;
 import org.codehaus.gmaven.feature.Component;
 import org.codehaus.gmaven.feature.ComponentException;
 import org.codehaus.gmaven.feature.support.ComponentSupport;
@@ -27,6 +28,9 @@ import org.codehaus.gmaven.runtime.ClassFactory;
 import org.codehaus.gmaven.runtime.support.util.ResourceLoaderImpl;
 import org.codehaus.gmaven.runtime.util.ClassSource;
 import org.codehaus.gmaven.runtime.util.ResourceLoader;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -57,7 +61,7 @@ public class ClassFactoryFeature
 
     private class ClassFactoryImpl
         extends ComponentSupport
-        implements ClassFactory
+        implements ClassFactory, ClassFactory.Keys
     {
         private ClassFactoryImpl() {
             super(ClassFactoryFeature.this);
@@ -68,10 +72,22 @@ public class ClassFactoryFeature
             assert classLoader != null;
             // resourceLoader can be null
 
-            GroovyClassLoader groovyClassLoader = createGroovyClassLoader(classLoader, resourceLoader);
-
             GroovyCodeSource codeSource = createGroovyCodeSource(classSource);
 
+            if (config.get(COMPILE_STATIC, false)) {
+                GroovyClassLoader groovyClassLoader = createGroovyClassLoader(classLoader, resourceLoader, createCompilerConfiguration(true));
+
+                try {
+                    return groovyClassLoader.parseClass(codeSource);
+                }
+                catch (CompilationFailedException e) {
+                    log.warn("Static compilation failed, falling back to dynamic compilation: {}", classSource);
+                    log.debug("Static compilation failure", e);
+                }
+            }
+
+            GroovyClassLoader groovyClassLoader = createGroovyClassLoader(classLoader, resourceLoader, createCompilerConfiguration(false));
+
             return groovyClassLoader.parseClass(codeSource);
         }
 
@@ -101,11 +117,27 @@ public class ClassFactoryFeature
             return create(className, classLoader, null);
         }
 
-        private GroovyClassLoader createGroovyClassLoader(final ClassLoader classLoader, final ResourceLoader resourceLoader) {
+        private CompilerConfiguration createCompilerConfiguration(final boolean compileStatic) {
+            CompilerConfiguration cc = new CompilerConfiguration();
+
+            if (config.get(INVOKE_DYNAMIC, false)) {
+                cc.getOptimizationOptions().put("indy", true);
+                cc.getOptimizationOptions().put("int", false);
+            }
+
+            if (compileStatic) {
+                cc.addCompilationCustomizers(new ASTTransformationCustomizer(CompileStatic.class));
+            }
+
+            return cc;
+        }
+
+        private GroovyClassLoader createGroovyClassLoader(final ClassLoader classLoader, final ResourceLoader resourceLoader, final CompilerConfiguration cc) {
             assert classLoader != null;
             // resourceLoader can be null
+            assert cc != null;
 
-            GroovyClassLoader groovyClassLoader = new GroovyClassLoader(classLoader);
+            GroovyClassLoader groovyClassLoader = new GroovyClassLoader(classLoader, cc);
 
             groovyClassLoader.setResourceLoader(createGroovyResourceLoader(classLoader, resourceLoader));
 
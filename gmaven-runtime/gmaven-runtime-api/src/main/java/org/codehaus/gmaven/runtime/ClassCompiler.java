@@ -49,6 +49,21 @@ public interface ClassCompiler
 
         String WARNING_LEVEL = "warningLevel";
 
+        /**
+         * Jar to write compiled classes into instead of the target directory.
+         */
+        String TARGET_JAR = "targetJar";
+
+        /**
+         * False to store target jar entries uncompressed.
+         */
+        String TARGET_JAR_COMPRESS = "targetJarCompress";
+
+        /**
+         * Fixed modification time of target jar entries, in milliseconds.
+         */
+        String TARGET_JAR_TIMESTAMP = "targetJarTimestamp";
+
         String[] ALL = {
             DEBUG,
             VERBOSE,
@@ -59,6 +74,9 @@ public interface ClassCompiler
             SCRIPT_BASE_CLASSNAME,
             DEFAULT_SCRIPT_EXTENSION,
             WARNING_LEVEL,
+            TARGET_JAR,
+            TARGET_JAR_COMPRESS,
+            TARGET_JAR_TIMESTAMP,
         };
     }
 }
\ No newline at end of file
@@ -31,6 +31,18 @@ public interface ClassFactory
 {
     String KEY = ClassFactory.class.getName();
 
+    interface Keys
+    {
+        String INVOKE_DYNAMIC = "invokeDynamic";
+
+        String COMPILE_STATIC = "compileStatic";
+
+        String[] ALL = {
+            INVOKE_DYNAMIC,
+            COMPILE_STATIC,
+        };
+    }
+
     Class create(ClassSource classSource, ClassLoader classLoader, ResourceLoader resourceLoader) throws Exception;
 
     Class create(ClassSource classSource, ClassLoader classLoader) throws Exception;
@@ -33,4 +33,6 @@ public interface ScriptExecutor
     String KEY = ScriptExecutor.class.getName();
 
     Object execute(ClassSource classSource, ClassLoader classLoader, ResourceLoader resourceLoader, Configuration context) throws Exception;
+
+    Object execute(Class type, Configuration context) throws Exception;
 }
\ No newline at end of file
@@ -0,0 +1,649 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.util;
+
+import org.codehaus.gmaven.feature.util.ListenerArrays;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Emits Java Flight Recorder events for GMaven operations.
+ *
+ * Events are defined with the dynamic <tt>jdk.jfr.EventFactory</tt> API through reflection, so this works
+ * (as a no-op) on any JVM.  When no recording is running and there are no listeners, {@link #begin} returns a
+ * shared disabled event and costs a few field reads; whether a recording is running is tracked with a recorder
+ * listener, and whether an event type is enabled is only asked again after a recording changed state.
+ *
+ * The recorder listener is only registered between {@link #acquire} and the matching {@link #release}, since the
+ * recorder holds on to it, and through it to this class and its class loader; components which emit events acquire
+ * when they are created and release when they are disposed.  Without it no event is sent to JFR.
+ *
+ * Every event carries the module, file, provider key and phase; module and provider default to the values
+ * set for the current thread with {@link #setModule} and {@link #setProvider}.
+ *
+ * Registered {@link Listener}s are also told about every event as it ends, whether JFR is recording or not.
+ *
+ * @version $Id$
+ */
+public final class FlightEvent
+{
+    public static final Type PROVIDER_SELECTION = new Type("ProviderSelection", "Provider Selection");
+
+    public static final Type REALM_CREATE = new Type("RealmCreate", "Realm Creation");
+
+    public static final Type REALM_DISPOSE = new Type("RealmDispose", "Realm Disposal");
+
+    public static final Type STUB_RENDER = new Type("StubRender", "Stub Render");
+
+    public static final Type CLASS_COMPILE = new Type("ClassCompile", "Class Compile");
+
+    public static final Type SCRIPT_COMPILE = new Type("ScriptCompile", "Script Compile");
+
+    public static final Type SCRIPT_RUN = new Type("ScriptRun", "Script Run");
+
+    public static final Type EXPRESSION_EVALUATION = new Type("ExpressionEvaluation", "Expression Evaluation");
+
+    public static final Type MOJO_EXECUTION = new Type("MojoExecution", "Mojo Execution");
+
+    private static final String[] FIELDS = { "module", "file", "provider", "phase" };
+
+    private static final String[] FIELD_LABELS = { "Module", "File", "Provider", "Phase" };
+
+    private static final int MODULE = 0;
+
+    private static final int FILE = 1;
+
+    private static final int PROVIDER = 2;
+
+    private static final int PHASE = 3;
+
+    private static final FlightEvent DISABLED = new FlightEvent(null, null, false);
+
+    private static final Listener[] NO_LISTENERS = {};
+
+    /**
+     * Copied on write, so {@link #begin} can read it without locking.
+     */
+    private static volatile Listener[] listeners = NO_LISTENERS;
+
+    /**
+     * Per-thread defaults for the module and provider fields.
+     */
+    private static final InheritableThreadLocal context = new InheritableThreadLocal()
+    {
+        protected Object childValue(final Object parentValue) {
+            return parentValue == null ? null : ((String[]) parentValue).clone();
+        }
+    };
+
+    private final Type type;
+
+    private final Object event;
+
+    /**
+     * Field values and times, only kept when there are listeners.
+     */
+    private final String[] values;
+
+    private long startTime;
+
+    private long endTime;
+
+    private final Thread thread;
+
+    private FlightEvent(final Type type, final Object event, final boolean tracked) {
+        this.type = type;
+        this.event = event;
+
+        if (tracked) {
+            values = new String[FIELDS.length];
+            thread = Thread.currentThread();
+        }
+        else {
+            values = null;
+            thread = null;
+        }
+    }
+
+    public static synchronized void addListener(final Listener listener) {
+        listeners = (Listener[]) ListenerArrays.add(listeners, listener);
+    }
+
+    public static synchronized void removeListener(final Listener listener) {
+        listeners = (Listener[]) ListenerArrays.remove(listeners, listener);
+    }
+
+    /**
+     * Registers the recorder listener, unless already registered for another caller.
+     */
+    public static void acquire() {
+        Jfr.acquire();
+    }
+
+    /**
+     * Removes the recorder listener, once every {@link #acquire} has been released.
+     */
+    public static void release() {
+        Jfr.release();
+    }
+
+    private static String[] context() {
+        String[] values = (String[]) context.get();
+        if (values == null) {
+            values = new String[2];
+            context.set(values);
+        }
+        return values;
+    }
+
+    public static void setModule(final String module) {
+        context()[0] = module;
+    }
+
+    public static void setProvider(final String provider) {
+        context()[1] = provider;
+    }
+
+    public static void clearContext() {
+        context.set(null);
+    }
+
+    /**
+     * Begins timing a new event of the given type; the result is never null.
+     */
+    public static FlightEvent begin(final Type type) {
+        assert type != null;
+
+        boolean tracked = listeners.length != 0;
+
+        Object event = Jfr.isRecording() ? type.newEvent() : null;
+        if (event == null && !tracked) {
+            return DISABLED;
+        }
+
+        FlightEvent flight = new FlightEvent(type, event, tracked);
+
+        String[] defaults = (String[]) context.get();
+        if (defaults != null) {
+            flight.set(MODULE, defaults[0]);
+            flight.set(PROVIDER, defaults[1]);
+        }
+
+        if (event != null) {
+            Jfr.begin(event);
+        }
+        if (tracked) {
+            flight.startTime = System.nanoTime();
+        }
+
+        return flight;
+    }
+
+    public boolean isEnabled() {
+        return event != null || values != null;
+    }
+
+    private void set(final int index, final String value) {
+        if (event != null) {
+            Jfr.set(event, index, value);
+        }
+        if (values != null) {
+            values[index] = value;
+        }
+    }
+
+    public FlightEvent module(final String module) {
+        set(MODULE, module);
+        return this;
+    }
+
+    public FlightEvent file(final Object file) {
+        if (file != null) {
+            set(FILE, String.valueOf(file));
+        }
+        return this;
+    }
+
+    public FlightEvent provider(final String provider) {
+        set(PROVIDER, provider);
+        return this;
+    }
+
+    public FlightEvent phase(final String phase) {
+        set(PHASE, phase);
+        return this;
+    }
+
+    /**
+     * Ends timing and commits the event, if the recording wants it, then tells the listeners.
+     */
+    public void end() {
+        if (event != null) {
+            Jfr.end(event);
+        }
+
+        if (values != null) {
+            endTime = System.nanoTime();
+
+            Listener[] listeners = FlightEvent.listeners;
+            for (int i = 0; i < listeners.length; i++) {
+                try {
+                    listeners[i].eventEnded(this);
+                }
+                catch (RuntimeException ignore) {
+                    // Listeners must never break the build
+                }
+            }
+        }
+    }
+
+    //
+    // Accessors for listeners
+    //
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getModule() {
+        return values == null ? null : values[MODULE];
+    }
+
+    public String getFile() {
+        return values == null ? null : values[FILE];
+    }
+
+    public String getProvider() {
+        return values == null ? null : values[PROVIDER];
+    }
+
+    public String getPhase() {
+        return values == null ? null : values[PHASE];
+    }
+
+    /**
+     * Start time, from {@link System#nanoTime}.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * End time, from {@link System#nanoTime}.
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public Thread getThread() {
+        return thread;
+    }
+
+    //
+    // Listener
+    //
+
+    /**
+     * Receives events as they end.  Called on the thread which ended the event, possibly concurrently.
+     */
+    public interface Listener
+    {
+        void eventEnded(FlightEvent event);
+    }
+
+    //
+    // Type
+    //
+
+    /**
+     * An event type; the JFR event factory is created on first use while recording.
+     */
+    public static final class Type
+    {
+        private final String name;
+
+        private final String label;
+
+        private volatile Object factory;
+
+        private volatile boolean failed;
+
+        /**
+         * Whether the event type is enabled, as of the {@link Jfr#changes} count in {@link #enabledChanges}.
+         */
+        private volatile boolean enabled;
+
+        private volatile int enabledChanges = -1;
+
+        private Type(final String name, final String label) {
+            this.name = name;
+            this.label = label;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private Object factory() {
+            Object factory = this.factory;
+
+            if (factory == null && !failed) {
+                synchronized (this) {
+                    if (this.factory == null && !failed) {
+                        try {
+                            this.factory = Jfr.createFactory("org.codehaus.gmaven." + name, label);
+                        }
+                        catch (Throwable t) {
+                            failed = true;
+                        }
+                    }
+                    factory = this.factory;
+                }
+            }
+            return factory;
+        }
+
+        private boolean isEnabled(final Object factory) {
+            int changes = Jfr.changes;
+
+            if (enabledChanges != changes) {
+                enabled = Jfr.isEnabled(factory);
+                enabledChanges = changes;
+            }
+            return enabled;
+        }
+
+        private Object newEvent() {
+            Object factory = factory();
+            if (factory == null || !isEnabled(factory)) {
+                return null;
+            }
+            return Jfr.newEvent(factory);
+        }
+
+        public String toString() {
+            return name;
+        }
+    }
+
+    //
+    // Jfr
+    //
+
+    /**
+     * Reflective access to <tt>jdk.jfr</tt>; disabled when any of it is missing.
+     *
+     * A recorder listener keeps {@link #recording} up to date, so nothing is called reflectively until a recording
+     * runs.  Enabled settings changed on a running recording are seen when any recording next changes state.
+     * While the listener is not registered, recordings are treated as not running.
+     */
+    private static final class Jfr
+    {
+        private static final boolean AVAILABLE;
+
+        /**
+         * True while any recording is running.
+         */
+        private static volatile boolean recording;
+
+        /**
+         * Counts recording state changes, so types know when to ask again whether they are enabled.
+         */
+        private static volatile int changes;
+
+        /**
+         * The registered recorder listener, or null.
+         */
+        private static Object listener;
+
+        private static int users;
+
+        private static Method addListener;
+
+        private static Method removeListener;
+
+        private static Method isInitialized;
+
+        private static Method getFlightRecorder;
+
+        private static Method getRecordings;
+
+        private static Method getState;
+
+        private static Object runningState;
+
+        private static Method create;
+
+        private static Method getEventType;
+
+        private static Method isEnabled;
+
+        private static Method newEvent;
+
+        private static Method begin;
+
+        private static Method end;
+
+        private static Method shouldCommit;
+
+        private static Method commit;
+
+        private static Method set;
+
+        private static Constructor annotationElement;
+
+        private static Constructor valueDescriptor;
+
+        private static Class nameType;
+
+        private static Class labelType;
+
+        private static Class categoryType;
+
+        private static Class stackTraceType;
+
+        static {
+            boolean available = false;
+
+            try {
+                Class recorder = Class.forName("jdk.jfr.FlightRecorder");
+
+                if (Boolean.TRUE.equals(recorder.getMethod("isAvailable", new Class[0]).invoke(null, new Object[0]))) {
+                    isInitialized = recorder.getMethod("isInitialized", new Class[0]);
+
+                    Class factory = Class.forName("jdk.jfr.EventFactory");
+                    Class event = Class.forName("jdk.jfr.Event");
+                    Class element = Class.forName("jdk.jfr.AnnotationElement");
+                    Class descriptor = Class.forName("jdk.jfr.ValueDescriptor");
+
+                    getFlightRecorder = recorder.getMethod("getFlightRecorder", new Class[0]);
+                    getRecordings = recorder.getMethod("getRecordings", new Class[0]);
+                    getState = Class.forName("jdk.jfr.Recording").getMethod("getState", new Class[0]);
+                    runningState = Class.forName("jdk.jfr.RecordingState").getField("RUNNING").get(null);
+
+                    create = factory.getMethod("create", new Class[] { List.class, List.class });
+                    getEventType = factory.getMethod("getEventType", new Class[0]);
+                    isEnabled = Class.forName("jdk.jfr.EventType").getMethod("isEnabled", new Class[0]);
+                    newEvent = factory.getMethod("newEvent", new Class[0]);
+                    begin = event.getMethod("begin", new Class[0]);
+                    end = event.getMethod("end", new Class[0]);
+                    shouldCommit = event.getMethod("shouldCommit", new Class[0]);
+                    commit = event.getMethod("commit", new Class[0]);
+                    set = event.getMethod("set", new Class[] { Integer.TYPE, Object.class });
+
+                    annotationElement = element.getConstructor(new Class[] { Class.class, Object.class });
+                    valueDescriptor = descriptor.getConstructor(new Class[] { Class.class, String.class, List.class });
+
+                    nameType = Class.forName("jdk.jfr.Name");
+                    labelType = Class.forName("jdk.jfr.Label");
+                    categoryType = Class.forName("jdk.jfr.Category");
+                    stackTraceType = Class.forName("jdk.jfr.StackTrace");
+
+                    Class listenerType = Class.forName("jdk.jfr.FlightRecorderListener");
+                    addListener = recorder.getMethod("addListener", new Class[] { listenerType });
+                    removeListener = recorder.getMethod("removeListener", new Class[] { listenerType });
+
+                    available = true;
+                }
+            }
+            catch (Throwable ignore) {
+                // No JFR, events are disabled
+            }
+
+            AVAILABLE = available;
+        }
+
+        private static synchronized void acquire() {
+            if (!AVAILABLE || users++ != 0) {
+                return;
+            }
+
+            listener = createRecorderListener();
+            invoke(addListener, null, new Object[] { listener });
+
+            // Recordings started before the listener was added are not reported to it
+            recordingStateChanged();
+        }
+
+        private static synchronized void release() {
+            if (!AVAILABLE || users == 0 || --users != 0) {
+                return;
+            }
+
+            invoke(removeListener, null, new Object[] { listener });
+            listener = null;
+
+            recording = false;
+            changes++;
+        }
+
+        private static Object createRecorderListener() {
+            Class type = addListener.getParameterTypes()[0];
+
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class[] { type }, new InvocationHandler()
+            {
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    String name = method.getName();
+
+                    if (name.equals("recordingStateChanged")) {
+                        recordingStateChanged();
+                    }
+                    else if (name.equals("equals")) {
+                        return Boolean.valueOf(proxy == args[0]);
+                    }
+                    else if (name.equals("hashCode")) {
+                        return new Integer(System.identityHashCode(proxy));
+                    }
+                    else if (name.equals("toString")) {
+                        return FlightEvent.class.getName() + "$Jfr";
+                    }
+                    return null;
+                }
+            });
+        }
+
+        /**
+         * Returns true while any recording is running; until then no event could be enabled.
+         */
+        private static boolean isRecording() {
+            return AVAILABLE && recording;
+        }
+
+        /**
+         * Only asks the recorder for its recordings once it is initialized, as asking would initialize it.
+         */
+        private static synchronized void recordingStateChanged() {
+            boolean running = false;
+
+            if (listener != null && Boolean.TRUE.equals(invoke(isInitialized, null, new Object[0]))) {
+                List recordings = (List) invoke(getRecordings, invoke(getFlightRecorder, null, new Object[0]), new Object[0]);
+
+                if (recordings != null) {
+                    for (int i = 0; i < recordings.size() && !running; i++) {
+                        running = runningState.equals(invoke(getState, recordings.get(i), new Object[0]));
+                    }
+                }
+            }
+
+            recording = running;
+            changes++;
+        }
+
+        private static Object annotation(final Class type, final Object value) throws Exception {
+            return annotationElement.newInstance(new Object[] { type, value });
+        }
+
+        private static Object createFactory(final String name, final String label) throws Exception {
+            List annotations = new ArrayList();
+            annotations.add(annotation(nameType, name));
+            annotations.add(annotation(labelType, label));
+            annotations.add(annotation(categoryType, new String[] { "GMaven" }));
+
+            // Stack traces would only show this class and reflection
+            annotations.add(annotation(stackTraceType, Boolean.FALSE));
+
+            List fields = new ArrayList();
+            for (int i = 0; i < FIELDS.length; i++) {
+                List fieldAnnotations = new ArrayList();
+                fieldAnnotations.add(annotation(labelType, FIELD_LABELS[i]));
+
+                fields.add(valueDescriptor.newInstance(new Object[] { String.class, FIELDS[i], fieldAnnotations }));
+            }
+
+            return create.invoke(null, new Object[] { annotations, fields });
+        }
+
+        private static Object invoke(final Method method, final Object target, final Object[] args) {
+            try {
+                return method.invoke(target, args);
+            }
+            catch (Exception e) {
+                // Recording must never break the build
+                return null;
+            }
+        }
+
+        private static boolean isEnabled(final Object factory) {
+            return Boolean.TRUE.equals(invoke(isEnabled, invoke(getEventType, factory, new Object[0]), new Object[0]));
+        }
+
+        private static Object newEvent(final Object factory) {
+            return invoke(newEvent, factory, new Object[0]);
+        }
+
+        private static void set(final Object event, final int index, final String value) {
+            invoke(set, event, new Object[] { new Integer(index), value });
+        }
+
+        private static void begin(final Object event) {
+            invoke(begin, event, new Object[0]);
+        }
+
+        private static void end(final Object event) {
+            invoke(end, event, new Object[0]);
+
+            if (Boolean.TRUE.equals(invoke(shouldCommit, event, new Object[0]))) {
+                invoke(commit, event, new Object[0]);
+            }
+        }
+    }
+}
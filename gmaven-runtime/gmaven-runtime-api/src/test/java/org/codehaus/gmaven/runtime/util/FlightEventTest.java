@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.util;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the {@link FlightEvent} class.
+ *
+ * @version $Id$
+ */
+public class FlightEventTest
+    extends TestCase
+{
+    private final List ended = new ArrayList();
+
+    private final FlightEvent.Listener listener = new FlightEvent.Listener()
+    {
+        public void eventEnded(final FlightEvent event) {
+            ended.add(event);
+        }
+    };
+
+    protected void tearDown() throws Exception {
+        FlightEvent.removeListener(listener);
+        FlightEvent.clearContext();
+    }
+
+    public void testDisabledWithoutListenersOrRecording() throws Exception {
+        FlightEvent first = FlightEvent.begin(FlightEvent.SCRIPT_RUN);
+        FlightEvent second = FlightEvent.begin(FlightEvent.CLASS_COMPILE);
+
+        assertFalse(first.isEnabled());
+        assertSame(first, second);
+
+        first.file("Foo.groovy").end();
+    }
+
+    public void testListenerSeesEvents() throws Exception {
+        FlightEvent.addListener(listener);
+        FlightEvent.setModule("module");
+
+        FlightEvent.begin(FlightEvent.STUB_RENDER).file("Foo.groovy").phase("render").end();
+
+        assertEquals(1, ended.size());
+
+        FlightEvent event = (FlightEvent) ended.get(0);
+        assertSame(FlightEvent.STUB_RENDER, event.getType());
+        assertEquals("module", event.getModule());
+        assertEquals("Foo.groovy", event.getFile());
+        assertEquals("render", event.getPhase());
+        assertTrue(event.getEndTime() >= event.getStartTime());
+    }
+
+    private static Class recordingType() {
+        try {
+            return Class.forName("jdk.jfr.Recording");
+        }
+        catch (ClassNotFoundException e) {
+            // No JFR on this JVM
+            return null;
+        }
+    }
+
+    private static Object startRecording(final Class type) throws Exception {
+        Object recording = type.newInstance();
+        type.getMethod("enable", new Class[] { String.class }).invoke(recording, new Object[] { "org.codehaus.gmaven.ScriptRun" });
+        type.getMethod("disable", new Class[] { String.class }).invoke(recording, new Object[] { "org.codehaus.gmaven.MojoExecution" });
+        type.getMethod("start", new Class[0]).invoke(recording, new Object[0]);
+        return recording;
+    }
+
+    private static void stopRecording(final Class type, final Object recording) throws Exception {
+        type.getMethod("stop", new Class[0]).invoke(recording, new Object[0]);
+        type.getMethod("close", new Class[0]).invoke(recording, new Object[0]);
+    }
+
+    public void testEnabledOnlyWhileRecording() throws Exception {
+        Class type = recordingType();
+        if (type == null) {
+            return;
+        }
+
+        FlightEvent.acquire();
+        try {
+            Object recording = startRecording(type);
+            try {
+                FlightEvent event = FlightEvent.begin(FlightEvent.SCRIPT_RUN);
+                assertTrue(event.isEnabled());
+                event.end();
+
+                // Disabled in the recording
+                assertFalse(FlightEvent.begin(FlightEvent.MOJO_EXECUTION).isEnabled());
+            }
+            finally {
+                stopRecording(type, recording);
+            }
+
+            assertFalse(FlightEvent.begin(FlightEvent.SCRIPT_RUN).isEnabled());
+        }
+        finally {
+            FlightEvent.release();
+        }
+    }
+
+    public void testDisabledOnceReleased() throws Exception {
+        Class type = recordingType();
+        if (type == null) {
+            return;
+        }
+
+        Object recording = startRecording(type);
+        try {
+            // Not acquired, so the running recording is not seen
+            assertFalse(FlightEvent.begin(FlightEvent.SCRIPT_RUN).isEnabled());
+
+            FlightEvent.acquire();
+            FlightEvent.acquire();
+            assertTrue(FlightEvent.begin(FlightEvent.SCRIPT_RUN).isEnabled());
+
+            FlightEvent.release();
+            assertTrue(FlightEvent.begin(FlightEvent.SCRIPT_RUN).isEnabled());
+
+            FlightEvent.release();
+            assertFalse(FlightEvent.begin(FlightEvent.SCRIPT_RUN).isEnabled());
+
+            // Unmatched releases are ignored
+            FlightEvent.release();
+            FlightEvent.acquire();
+            assertTrue(FlightEvent.begin(FlightEvent.SCRIPT_RUN).isEnabled());
+            FlightEvent.release();
+        }
+        finally {
+            stopRecording(type, recording);
+        }
+    }
+}
@@ -28,9 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Default {@link ProviderLoader}.
@@ -47,6 +45,10 @@ public class DefaultProviderLoader
 
     private PlexusContainer container;
 
+    private Map descriptors;
+
+    private final Map providers = new HashMap();
+
     public void contextualize(final Context context) throws ContextException {
         assert context != null;
 
@@ -66,58 +68,50 @@ public class DefaultProviderLoader
 
         Map found = null;
 
-        Map providers = findProviders();
-
-        if (providers == null || providers.isEmpty()) {
-            log.debug("No providers were found");
-        }
-        else {
-            log.debug("Looking for provider {} in {}", key, providers);
-
-            Provider provider = (Provider) providers.get(key);
+        Provider provider = findProvider(key);
 
-            if (provider != null) {
-                found = Collections.singletonMap(key, provider);
-            }
+        if (provider != null) {
+            found = Collections.singletonMap(key, provider);
         }
 
         return found;
     }
 
     /**
-     * Find any providers which are available in the container.
+     * Find the provider for the given key in the container, only looking up the component with that key.
      */
-    private Map findProviders() {
-        Map providers = getContainer().getComponentDescriptorMap(Provider.class.getName());
-        if (providers == null) {
-            throw new Error("No providers discovered");
-        }
+    private synchronized Provider findProvider(final String key) {
+        assert key != null;
 
-        Set keys = providers.keySet();
-        Map found = null;
+        if (descriptors == null) {
+            descriptors = getContainer().getComponentDescriptorMap(Provider.class.getName());
+
+            if (descriptors == null) {
+                throw new Error("No providers discovered");
+            }
+        }
 
-        for (Iterator iter = keys.iterator(); iter.hasNext();) {
-            String key = (String)iter.next();
+        if (!descriptors.containsKey(key)) {
+            log.debug("No provider component found for key: {}", key);
+            return null;
+        }
 
-            Provider provider;
+        Provider provider = (Provider) providers.get(key);
 
+        if (provider == null) {
             try {
                 provider = (Provider) getContainer().lookup(Provider.class.getName(), key);
             }
             catch (Exception e) {
                 log.warn("Failed to lookup provider for key: {}", key, e);
-                continue;
+                return null;
             }
 
             if (provider != null) {
-                if (found == null) {
-                    found = new HashMap();
-                }
-
-                found.put(key, provider);
+                providers.put(key, provider);
             }
         }
 
-        return found;
+        return provider;
     }
 }
\ No newline at end of file
@@ -22,11 +22,17 @@ import org.codehaus.gmaven.feature.ProviderException;
 import org.codehaus.gmaven.feature.ProviderManager;
 import org.codehaus.gmaven.feature.ProviderRegistry;
 import org.codehaus.gmaven.feature.ProviderSelector;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Disposable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import javax.management.ObjectName;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * Default {@link ProviderManager}.
@@ -37,11 +43,18 @@ import java.util.Map;
  * @author <a href="mailto:jason@planet57.com">Jason Dillon</a>
  */
 public class DefaultProviderManager
-    implements ProviderManager
+    implements ProviderManager, Disposable
 {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private Map cachedSelection = new HashMap();
+    private final ProviderMetrics metrics = new ProviderMetrics();
+
+    private final ObjectName metricsName = MBeans.register(metrics, "ProviderMetrics");
+
+    /**
+     * Selection -> FutureTask of the selected provider.
+     */
+    private final ConcurrentMap cachedSelection = new ConcurrentHashMap();
 
     /**
      * @plexus.requirement
@@ -57,6 +70,10 @@ public class DefaultProviderManager
      */
     private ProviderSelector selector;
 
+    public DefaultProviderManager() {
+        FlightEvent.acquire();
+    }
+
     public ProviderRegistry getRegistry() {
         if (registry == null) {
             throw new IllegalStateException("Registry not bound");
@@ -88,38 +105,93 @@ public class DefaultProviderManager
     public Provider select(final String selection) {
         assert selection != null;
 
-        Provider provider = (Provider) cachedSelection.get(selection);
-        if (provider != null) {
-            log.debug("Using cached provider '{}' for selection: {}", provider, selection);    
+        FutureTask task = (FutureTask) cachedSelection.get(selection);
+
+        if (task == null) {
+            FutureTask created = new FutureTask(new Callable() {
+                public Object call() throws Exception {
+                    return doSelect(selection);
+                }
+            });
+
+            task = (FutureTask) cachedSelection.putIfAbsent(selection, created);
+
+            if (task == null) {
+                task = created;
+                task.run();
+            }
         }
         else {
-            log.debug("Selecting provider; selection: {}", selection);
+            log.debug("Using cached provider for selection: {}", selection);
+            metrics.selectedFromCache();
+        }
 
-            StopWatch watch = new StopWatch();
-            watch.start();
+        try {
+            return (Provider) task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProviderException("Interrupted while selecting provider; selection: " + selection, e);
+        }
+        catch (ExecutionException e) {
+            // Don't cache failures, the next caller will try again
+            cachedSelection.remove(selection, task);
 
-            try {
-                provider = getSelector().select(getRegistry(), selection);
-            }
-            catch (Exception e) {
-                throw new ProviderException("Selection of provider failed; selection: " + selection, e);
+            if (e.getCause() instanceof ProviderException) {
+                throw (ProviderException) e.getCause();
             }
 
-            if (provider == null) {
-                throw new ProviderException("No providers found matching selection: " + selection);
-            }
+            throw new ProviderException("Selection of provider failed; selection: " + selection, e.getCause());
+        }
+    }
+
+    private Provider doSelect(final String selection) {
+        assert selection != null;
+
+        // The selector loads each provider key once at a time, selections of other keys run concurrently
+        log.debug("Selecting provider; selection: {}", selection);
 
-            cachedSelection.put(selection, provider);
+        StopWatch watch = new StopWatch();
+        watch.start();
 
-            watch.stop();
+        FlightEvent event = FlightEvent.begin(FlightEvent.PROVIDER_SELECTION).phase(selection);
+
+        Provider provider;
+        try {
+            provider = getSelector().select(getRegistry(), selection);
+        }
+        catch (Exception e) {
+            throw new ProviderException("Selection of provider failed; selection: " + selection, e);
+        }
+        finally {
+            event.end();
+        }
 
-            log.debug("Selected provider: {} ({})", provider, watch);
+        if (provider == null) {
+            throw new ProviderException("No providers found matching selection: " + selection);
         }
 
+        watch.stop();
+
+        log.debug("Selected provider: {} ({})", provider, watch);
+        metrics.selected(selection, watch.getTime());
+
         return provider;
     }
 
     public Provider select() {
         return select(getDefaultSelection());
     }
+
+    /**
+     * Metrics collected by this manager; not part of the manager interface, so other implementations need not collect any.
+     */
+    public ProviderMetrics metrics() {
+        return metrics;
+    }
+
+    public void dispose() {
+        MBeans.unregister(metricsName);
+        FlightEvent.release();
+    }
 }
\ No newline at end of file
@@ -21,9 +21,12 @@ import org.codehaus.gmaven.feature.ProviderRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Default {@link ProviderRegistry}.
@@ -38,16 +41,19 @@ public class DefaultProviderRegistry
 {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final Map providers = new HashMap();
+    private final ConcurrentMap providers = new ConcurrentHashMap();
 
+    /**
+     * Returns a read-only live view of the registered providers.
+     */
     public Map providers() {
-        return providers;
+        return Collections.unmodifiableMap(providers);
     }
 
     public Map providers(final boolean supported) {
         Map selected = new HashMap();
 
-        for (Iterator iter = providers().values().iterator(); iter.hasNext();) {
+        for (Iterator iter = providers.values().iterator(); iter.hasNext();) {
             Provider provider = (Provider)iter.next();
 
             if (supported == provider.supported()) {
@@ -63,7 +69,7 @@ public class DefaultProviderRegistry
 
         log.trace("Lookup: {}", key);
 
-        return (Provider) providers().get(key);
+        return (Provider) providers.get(key);
     }
 
     public Provider register(final Provider provider) {
@@ -78,7 +84,15 @@ public class DefaultProviderRegistry
 
         log.trace("Register: {} -> {}", key, provider);
 
-        return (Provider) providers().put(key, provider);
+        return (Provider) providers.put(key, provider);
+    }
+
+    public Provider registerIfAbsent(final Provider provider) {
+        assert provider != null;
+
+        log.trace("Register if absent: {} -> {}", provider.key(), provider);
+
+        return (Provider) providers.putIfAbsent(provider.key(), provider);
     }
 
     public Provider deregister(final String key) {
@@ -86,6 +100,6 @@ public class DefaultProviderRegistry
 
         log.trace("Deregister: {}", key);
 
-        return (Provider) providers().remove(key);
+        return (Provider) providers.remove(key);
     }
 }
\ No newline at end of file
@@ -28,11 +28,15 @@ import org.codehaus.plexus.personality.plexus.lifecycle.phase.Contextualizable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * Default {@link ProviderSelector}.
@@ -49,6 +53,13 @@ public class DefaultProviderSelector
 
     private PlexusContainer container;
 
+    private Map cachedLoaders;
+
+    /**
+     * Key -> FutureTask loading and registering its providers, while that is in progress.
+     */
+    private final ConcurrentMap registering = new ConcurrentHashMap();
+
     public void contextualize(final Context context) throws ContextException {
         assert context != null;
 
@@ -114,48 +125,17 @@ public class DefaultProviderSelector
         return provider;
     }
 
+    /**
+     * Discover and register the providers for each key of the selection.
+     *
+     * Each key is loaded and registered at most once at a time; selections of other keys do not wait for it.
+     */
     private void register(final ProviderRegistry registry, final String selection) throws Exception {
         assert registry != null;
         assert selection != null;
 
-        // First run discovery
-        Map discovered = discover(registry, selection);
-
-        // If we didn't find anything then puke
-        if (discovered == null || discovered.isEmpty()) {
-            log.debug("No providers discovered for selection: {}", selection);
-        }
-        else {
-            log.debug("Registering {} providers:", String.valueOf(discovered.size()));
-
-            for (Iterator iter = discovered.keySet().iterator(); iter.hasNext();) {
-                String key = (String) iter.next();
-                Provider provider = (Provider) discovered.get(key);
-
-                log.debug("    {} -> {}", key, provider);
-
-                // Complain if we found a mismatch of keys
-                if (!key.equals(provider.key())) {
-                    log.warn("Found mismatch of provider key; discovered key: {}, provider's key: {}", key, provider.key());
-                }
-
-                Provider replaced = registry.register(provider);
-
-                // Complain if we replaced a provider
-                if (replaced != null) {
-                    log.warn("Replaced provider; key: {}, current: {}, replaced: {}", new Object[] { key, provider, replaced });
-                }
-            }
-        }
-    }
-
-    private Map discover(final ProviderRegistry registry, final String selection) throws Exception {
-        assert registry != null;
-        assert selection != null;
-
         log.debug("Discovering providers for selection: {}", selection);
 
-        Map discovered = null;
         String[] keys = selection.split(",");
 
         // Attempt to discover providers for each key
@@ -165,39 +145,104 @@ public class DefaultProviderSelector
                 continue;
             }
 
+            // First see if the registry already has a provider for this key
+            if (registry.lookup(keys[i]) != null) {
+                log.debug("Provider already registered for: {}", keys[i]);
+
+                // Skip loading and re-use the registered provider
+                continue;
+            }
+
             try {
-                // First see if the registry already has a provider for this key
-                if (registry.lookup(keys[i]) != null) {
-                    log.debug("Provider already registered for: {}", keys[i]);
+                registerKey(registry, keys[i]);
+            }
+            catch (Exception e) {
+                log.debug("Failed to load providers for key: {}", keys[i], e);
+            }
+        }
+    }
+
+    private void registerKey(final ProviderRegistry registry, final String key) throws Exception {
+        FutureTask task = (FutureTask) registering.get(key);
 
-                    // Skip loading and re-use the registered provider
-                    continue;
+        if (task == null) {
+            FutureTask created = new FutureTask(new Callable() {
+                public Object call() throws Exception {
+                    register(registry, key, load(key));
+                    return null;
                 }
+            });
 
-                Map found = load(keys[i]);
+            task = (FutureTask) registering.putIfAbsent(key, created);
 
-                if (found != null && !found.isEmpty()) {
-                    // Late init the discovered providers map
-                    if (discovered == null) {
-                        discovered = new HashMap();
-                    }
+            if (task == null) {
+                task = created;
 
-                    discovered.putAll(found);
+                try {
+                    task.run();
+                }
+                finally {
+                    // Registered by now, later selections find the providers in the registry
+                    registering.remove(key, task);
                 }
             }
-            catch (Exception e) {
-                log.debug("Failed to load providers for key: {}", keys[i], e);
+        }
+
+        try {
+            task.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
             }
+
+            throw e;
+        }
+    }
+
+    private void register(final ProviderRegistry registry, final String selected, final Map discovered) {
+        // If we didn't find anything then puke
+        if (discovered == null || discovered.isEmpty()) {
+            log.debug("No providers discovered for: {}", selected);
+            return;
         }
 
-        return discovered;
+        log.debug("Registering {} providers:", String.valueOf(discovered.size()));
+
+        for (Iterator iter = discovered.keySet().iterator(); iter.hasNext();) {
+            String key = (String) iter.next();
+            Provider provider = (Provider) discovered.get(key);
+
+            log.debug("    {} -> {}", key, provider);
+
+            // Complain if we found a mismatch of keys
+            if (!key.equals(provider.key())) {
+                log.warn("Found mismatch of provider key; discovered key: {}, provider's key: {}", key, provider.key());
+            }
+
+            Provider existing = registry.registerIfAbsent(provider);
+
+            // Keep the provider another selection registered first
+            if (existing != null) {
+                log.debug("Keeping registered provider; key: {}, registered: {}, discovered: {}", new Object[] { key, existing, provider });
+            }
+        }
     }
 
     protected Map load(final String key) throws Exception {
         assert key != null;
 
+        return load(key, findLoaders());
+    }
+
+    /**
+     * Try the given loaders in order of preference; the next loader is only tried when the previous one
+     * failed or found nothing, so the preferred loader never pays for resolving the fallbacks.
+     */
+    Map load(final String key, final Map loaders) {
+        assert key != null;
+
         Map found = null;
-        Map loaders = findLoaders();
 
         if (loaders == null || loaders.isEmpty()) {
             log.debug("No provider loaders were found");
@@ -228,9 +273,17 @@ public class DefaultProviderSelector
     }
 
     /**
-     * Find any provider loaders which are available in the container.
+     * Find any provider loaders which are available in the container; only looked up once.
      */
-    private Map findLoaders() {
+    private synchronized Map findLoaders() {
+        if (cachedLoaders == null) {
+            cachedLoaders = lookupLoaders();
+        }
+
+        return cachedLoaders;
+    }
+
+    private Map lookupLoaders() {
         Map loaders = getContainer().getComponentDescriptorMap(ProviderLoader.class.getName());
         if (loaders == null) {
             throw new Error("No provider loaders found");
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registers metrics MBeans with the platform MBean server, when enabled with <tt>-Dgmaven.jmx=true</tt>.
+ *
+ * Registration is opt-in since the platform server holds on to the registered objects, and with them
+ * to the class loader which defined them, until they are unregistered.
+ *
+ * @version $Id$
+ */
+public final class MBeans
+{
+    private static final Logger log = LoggerFactory.getLogger(MBeans.class);
+
+    public static final String PROPERTY = "gmaven.jmx";
+
+    private MBeans() {}
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    /**
+     * Register the given standard MBean; returns its name, or null if registration is disabled or failed.
+     */
+    public static ObjectName register(final Object mbean, final String type) {
+        assert mbean != null;
+        assert type != null;
+
+        if (!isEnabled()) {
+            return null;
+        }
+
+        try {
+            ObjectName name = new ObjectName("org.codehaus.gmaven:type=" + type + ",id=" + Integer.toHexString(System.identityHashCode(mbean)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+
+            log.debug("Registered MBean: {}", name);
+
+            return name;
+        }
+        catch (Throwable t) {
+            log.debug("Unable to register MBean: " + type, t);
+
+            return null;
+        }
+    }
+
+    public static void unregister(final ObjectName name) {
+        if (name == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+        catch (Throwable t) {
+            log.debug("Unable to unregister MBean: " + name, t);
+        }
+    }
+}
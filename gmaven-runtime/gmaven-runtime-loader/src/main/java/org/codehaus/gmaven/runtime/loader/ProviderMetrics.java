@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader;
+
+import org.codehaus.gmaven.feature.ProviderManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provider selection metrics collected by a {@link ProviderManager}.
+ *
+ * @version $Id$
+ */
+public class ProviderMetrics
+    implements ProviderMetricsMBean
+{
+    private final AtomicLong selections = new AtomicLong();
+
+    private final AtomicLong selectionCacheHits = new AtomicLong();
+
+    private final Map selectionTimes = Collections.synchronizedMap(new LinkedHashMap());
+
+    public void selected(final String selection, final long millis) {
+        assert selection != null;
+
+        selections.incrementAndGet();
+        selectionTimes.put(selection, new Long(millis));
+    }
+
+    public void selectedFromCache() {
+        selections.incrementAndGet();
+        selectionCacheHits.incrementAndGet();
+    }
+
+    public long getSelections() {
+        return selections.get();
+    }
+
+    public long getSelectionCacheHits() {
+        return selectionCacheHits.get();
+    }
+
+    public double getSelectionCacheHitRate() {
+        long hits = getSelectionCacheHits();
+        long total = getSelections();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public Map getSelectionTimes() {
+        synchronized (selectionTimes) {
+            return new LinkedHashMap(selectionTimes);
+        }
+    }
+
+    public String toString() {
+        return "selections=" + getSelections() + ", cacheHits=" + getSelectionCacheHits() + ", times=" + getSelectionTimes();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link ProviderMetrics}.
+ *
+ * @version $Id$
+ */
+public interface ProviderMetricsMBean
+{
+    long getSelections();
+
+    long getSelectionCacheHits();
+
+    double getSelectionCacheHitRate();
+
+    /**
+     * Returns the time in milliseconds each (uncached) selection took, keyed by selection.
+     */
+    Map getSelectionTimes();
+}
@@ -20,20 +20,31 @@ import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.artifact.resolver.filter.ScopeArtifactFilter;
+import org.apache.commons.lang.time.StopWatch;
 import org.codehaus.gmaven.feature.Provider;
 import org.codehaus.gmaven.feature.ProviderLoader;
+import org.codehaus.gmaven.runtime.loader.realm.DefaultRealmManager;
 import org.codehaus.gmaven.runtime.loader.realm.RealmManager;
 import org.codehaus.plexus.classworlds.realm.ClassRealm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
 
 /**
  * Loads a provider based on a configured {@link ArtifactHandler}.
@@ -57,6 +68,10 @@ public class ArtifactProviderLoader
 
     private ArtifactHandler handler;
 
+    private File indexDirectory;
+
+    private String indexQualifier;
+
     public ArtifactProviderLoader() {}
 
     public ArtifactHandler getHandler() {
@@ -67,6 +82,52 @@ public class ArtifactProviderLoader
         this.handler = handler;
     }
 
+    public File getIndexDirectory() {
+        return indexDirectory;
+    }
+
+    /**
+     * Set the directory where resolved provider classpaths are recorded, or null to always resolve.
+     */
+    public void setIndexDirectory(final File indexDirectory) {
+        this.indexDirectory = indexDirectory;
+    }
+
+    public String getIndexQualifier() {
+        return indexQualifier;
+    }
+
+    /**
+     * Set the qualifier which tells apart classpaths resolved with different handler filters, such as a digest
+     * of the artifacts the handler excludes.  Indexes are only shared between builds with the same qualifier.
+     */
+    public void setIndexQualifier(final String indexQualifier) {
+        this.indexQualifier = indexQualifier;
+    }
+
+    /**
+     * Returns the index file for the given query, or null if the classpath of the query should not be indexed.
+     * Snapshots are never indexed, as their dependencies may change without any of the recorded files changing.
+     */
+    File getIndexFile(final Artifact query) {
+        assert query != null;
+
+        if (indexDirectory == null || query.isSnapshot()) {
+            return null;
+        }
+
+        StringBuffer buff = new StringBuffer();
+        buff.append(query.getArtifactId()).append("-").append(query.getVersion());
+
+        if (indexQualifier != null) {
+            buff.append("-").append(indexQualifier);
+        }
+
+        buff.append(".classpath");
+
+        return new File(indexDirectory, buff.toString());
+    }
+
     public Map load(final String key) throws Exception {
         assert key != null;
 
@@ -84,9 +145,26 @@ public class ArtifactProviderLoader
         return providers;
     }
 
-    private URL[] buildClassPath(final Artifact query) throws Exception {
+    private URL[] buildClassPath(final String key, final Artifact query) throws Exception {
+        assert key != null;
         assert query != null;
 
+        StopWatch watch = new StopWatch();
+        watch.start();
+
+        File indexFile = getIndexFile(query);
+        if (indexFile != null) {
+            File[] files = loadIndex(indexFile);
+            if (files != null) {
+                log.debug("Using indexed classpath: {}", indexFile);
+
+                watch.stop();
+                resolved(key, watch.getTime(), true);
+
+                return toURLs(files);
+            }
+        }
+
         Artifact artifact = handler.createDependency(query);
         ArtifactResolutionResult result = handler.resolve(artifact, new ScopeArtifactFilter(DefaultArtifact.SCOPE_RUNTIME));
 
@@ -96,13 +174,144 @@ public class ArtifactProviderLoader
         for (Iterator iter = result.getArtifacts().iterator(); iter.hasNext();) {
             Artifact element = (Artifact) iter.next();
 
-            File file = element.getFile();
-            URL url = file.toURI().toURL();
+            classPath.add(element.getFile());
+        }
+
+        File[] files = (File[]) classPath.toArray(new File[classPath.size()]);
+
+        if (indexFile != null) {
+            storeIndex(indexFile, files);
+        }
+
+        watch.stop();
+        resolved(key, watch.getTime(), false);
+
+        return toURLs(files);
+    }
 
-            classPath.add(url);
+    /**
+     * Record the resolution time when the realm manager collects metrics; custom managers need not.
+     */
+    private void resolved(final String key, final long millis, final boolean indexed) {
+        if (realmManager instanceof DefaultRealmManager) {
+            ((DefaultRealmManager) realmManager).metrics().resolved(key, millis, indexed);
+        }
+    }
+
+    private URL[] toURLs(final File[] files) throws Exception {
+        assert files != null;
+
+        URL[] urls = new URL[files.length];
+
+        for (int i=0; i<files.length; i++) {
+            urls[i] = files[i].toURI().toURL();
+        }
+
+        return urls;
+    }
+
+    //
+    // Classpath Index
+    //
+
+    /**
+     * Load the files recorded in the given index, or null if there is no index or any file has gone missing or changed.
+     */
+    private File[] loadIndex(final File indexFile) {
+        assert indexFile != null;
+
+        if (!indexFile.isFile()) {
+            return null;
+        }
+
+        try {
+            Properties props = new Properties();
+
+            InputStream input = new BufferedInputStream(new FileInputStream(indexFile));
+            try {
+                props.load(input);
+            }
+            finally {
+                input.close();
+            }
+
+            int count = Integer.parseInt(props.getProperty("count"));
+            File[] files = new File[count];
+
+            for (int i=0; i<count; i++) {
+                File file = new File(props.getProperty("file." + i));
+
+                if (!file.isFile() || !checksum(file).equals(props.getProperty("checksum." + i))) {
+                    log.debug("Indexed classpath is stale; missing or changed file: {}", file);
+                    return null;
+                }
+
+                files[i] = file;
+            }
+
+            return files;
+        }
+        catch (Exception e) {
+            log.debug("Unable to load classpath index: " + indexFile, e);
+            return null;
+        }
+    }
+
+    private void storeIndex(final File indexFile, final File[] files) {
+        assert indexFile != null;
+        assert files != null;
+
+        try {
+            Properties props = new Properties();
+
+            props.setProperty("count", String.valueOf(files.length));
+
+            for (int i=0; i<files.length; i++) {
+                props.setProperty("file." + i, files[i].getAbsolutePath());
+                props.setProperty("checksum." + i, checksum(files[i]));
+            }
+
+            indexFile.getParentFile().mkdirs();
+
+            // Write to a temporary file first so concurrent builds never see a partial index
+            File tmp = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp" + System.identityHashCode(this));
+
+            OutputStream output = new BufferedOutputStream(new FileOutputStream(tmp));
+            try {
+                props.store(output, "Resolved classpath for " + indexFile.getName());
+            }
+            finally {
+                output.close();
+            }
+
+            indexFile.delete();
+            if (!tmp.renameTo(indexFile)) {
+                tmp.delete();
+            }
+        }
+        catch (Exception e) {
+            log.debug("Unable to store classpath index: " + indexFile, e);
+        }
+    }
+
+    private String checksum(final File file) throws IOException {
+        assert file != null;
+
+        CRC32 crc = new CRC32();
+        byte[] buff = new byte[8192];
+
+        InputStream input = new FileInputStream(file);
+        try {
+            int n;
+            while ((n = input.read(buff)) != -1) {
+                crc.update(buff, 0, n);
+            }
+        }
+        finally {
+            input.close();
         }
 
-        return (URL[]) classPath.toArray(new URL[classPath.size()]);
+        return file.length() + ":" + Long.toHexString(crc.getValue());
     }
 
     private Provider loadProvider(final String key) throws Exception {
@@ -111,7 +320,7 @@ public class ArtifactProviderLoader
         log.debug("Loading providers: {}", key);
 
         Artifact query = handler.createQuery(key);
-        URL[] classPath = buildClassPath(query);
+        URL[] classPath = buildClassPath(key, query);
         ClassLoader parent = getClass().getClassLoader();
         ClassRealm realm = realmManager.createProviderRealm(key, classPath, parent);
 
@@ -16,57 +16,142 @@
 
 package org.codehaus.gmaven.runtime.loader.realm;
 
+import org.apache.commons.lang.time.StopWatch;
 import org.codehaus.gmaven.feature.Provider;
+import org.codehaus.gmaven.runtime.loader.MBeans;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
 import org.codehaus.plexus.classworlds.ClassWorld;
 import org.codehaus.plexus.classworlds.ClassWorldException;
 import org.codehaus.plexus.classworlds.realm.ClassRealm;
 import org.codehaus.plexus.classworlds.realm.NoSuchRealmException;
-import org.codehaus.plexus.classworlds.strategy.ParentFirstStrategy;
 import org.codehaus.plexus.classworlds.strategy.Strategy;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Disposable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.ObjectName;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Field;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The default {@link RealmManager} component.
  *
+ * Provider realms are shared through the {@link ProviderRealmRegistry} and released when the component is disposed.
+ *
  * @plexus.component role="org.codehaus.gmaven.runtime.loader.realm.RealmManager"
  *
  * @version $Id$
  * @author <a href="mailto:jason@planet57.com">Jason Dillon</a>
  */
 public class DefaultRealmManager
-    implements RealmManager
+    implements RealmManager, Disposable
 {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private ClassWorld classWorld = new ClassWorld();
+    private final ProviderRealmRegistry registry = ProviderRealmRegistry.getInstance();
+
+    private ClassWorld classWorld = registry.getClassWorld();
 
-    private Map providerRealms = new HashMap();
+    private final RealmMetrics metrics = new RealmMetrics();
 
-    public ClassRealm createProviderRealm(final String key, final URL[] classPath, final ClassLoader parent) throws ClassWorldException {
+    private final ObjectName metricsName = MBeans.register(metrics, "RealmMetrics");
+
+    /**
+     * Provider key -> realm; read without locking when creating component realms.
+     */
+    private final Map providerRealms = new ConcurrentHashMap();
+
+    /**
+     * Provider key -> shared realm id, for each realm reference held by this manager.
+     */
+    private Map acquiredRealms = new HashMap();
+
+    public DefaultRealmManager() {
+        FlightEvent.acquire();
+    }
+
+    public synchronized ClassRealm createProviderRealm(final String key, final URL[] classPath, final ClassLoader parent) throws ClassWorldException {
         assert key != null;
         assert classPath != null;
         assert parent != null;
 
-        String id = Provider.class.getName() + "[" + key + "]";
+        ProviderRealmRegistry.Key realmKey = registry.key(key, classPath, parent);
 
-        log.debug("Creating provider realm: {}", id);
+        ClassRealm realm;
 
-        ClassRealm realm = classWorld.newRealm(id, parent);
-        setupRealm(realm, classPath);
+        synchronized (registry) {
+            realm = registry.acquire(realmKey);
+
+            if (realm != null) {
+                metrics.providerRealmShared();
+            }
+            else {
+                StopWatch watch = new StopWatch();
+                watch.start();
+
+                FlightEvent event = FlightEvent.begin(FlightEvent.REALM_CREATE).provider(key).phase("provider");
+
+                String id = Provider.class.getName() + "[" + registry.realmId(key, classPath, parent) + "]";
+
+                // Never clash with a realm registered for another classpath or parent under the same id
+                if (classWorld.getClassRealm(id) != null) {
+                    id = id + "#" + uniqueId();
+                }
+
+                log.debug("Creating provider realm: {}", id);
+
+                realm = classWorld.newRealm(id, parent);
+                setupRealm(realm, classPath);
+
+                registry.register(realmKey, realm);
+
+                event.end();
+                watch.stop();
+                metrics.providerRealmCreated(key, watch.getTime());
+            }
+        }
+
+        // Drop any reference previously held for this key
+        String previous = (String) acquiredRealms.put(key, realm.getId());
+        if (previous != null) {
+            registry.release(previous);
+        }
 
         providerRealms.put(key, realm);
 
         return realm;
     }
 
+    /**
+     * Release the shared provider realms referenced by this manager.
+     */
+    public synchronized void dispose() {
+        for (Iterator iter = acquiredRealms.values().iterator(); iter.hasNext();) {
+            registry.release((String) iter.next());
+        }
+
+        acquiredRealms.clear();
+        providerRealms.clear();
+
+        JarIndexCache.getInstance().purge();
+
+        MBeans.unregister(metricsName);
+        FlightEvent.release();
+    }
+
+    /**
+     * Metrics collected by this manager; not part of the manager interface, so other implementations need not collect any.
+     */
+    public RealmMetrics metrics() {
+        return metrics;
+    }
+
     private int uniqueCounter = 0;
 
     private synchronized String uniqueId() {
@@ -83,15 +168,29 @@ public class DefaultRealmManager
 
         ClassRealm providerRealm = (ClassRealm)providerRealms.get(provider.key());
 
+        // Providers loaded through another manager still live in their shared realm
+        if (providerRealm == null && provider.getClass().getClassLoader() instanceof ClassRealm) {
+            providerRealm = (ClassRealm)provider.getClass().getClassLoader();
+        }
+
         if (providerRealm == null) {
             throw new Error("No realm for provider: " + provider);
         }
 
         log.debug("    Provider realm: {}", providerRealm.getId());
 
+        StopWatch watch = new StopWatch();
+        watch.start();
+
+        FlightEvent event = FlightEvent.begin(FlightEvent.REALM_CREATE).provider(provider.key()).phase("component");
+
         ClassRealm realm = providerRealm.createChildRealm(id);
         setupRealm(realm, classPath);
 
+        event.end();
+        watch.stop();
+        metrics.componentRealmCreated(watch.getTime());
+
         return realm;
     }
 
@@ -100,22 +199,35 @@ public class DefaultRealmManager
 
         log.debug("Releasing component realm: {}", realm.getId());
 
-        classWorld.disposeRealm(realm.getId());
+        FlightEvent event = FlightEvent.begin(FlightEvent.REALM_DISPOSE).phase("component");
+
+        // Groovy caches meta-classes in the shared provider realm, which would keep the realm reachable
+        MetaClassCleaner.purge(realm);
+
+        IndexedStrategy.dispose(realm);
+        try {
+            classWorld.disposeRealm(realm.getId());
+        }
+        finally {
+            event.end();
+        }
+
+        metrics.componentRealmReleased();
     }
 
     private void setupRealm(final ClassRealm realm, final URL[] classPath) {
         assert realm != null;
         assert classPath != null;
 
-        // HACK: Force the realm to use parent-first, instead of the default self-first
-        setStrategy(realm, new ParentFirstStrategy(realm));
-
         for (int i=0; i<classPath.length; i++) {
             realm.addURL(classPath[i]);
 
             log.debug("    {}", classPath[i]);
         }
 
+        // HACK: Force the realm to use parent-first, instead of the default self-first; indexed once the classpath is complete
+        setStrategy(realm, new IndexedStrategy(realm, metrics));
+
         if (log.isTraceEnabled()) {
             ByteArrayOutputStream buff = new ByteArrayOutputStream();
             realm.display(new PrintStream(buff, true));
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.codehaus.plexus.classworlds.strategy.AbstractStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+/**
+ * Parent-first strategy which only searches the realm itself for packages its jars actually contain.
+ *
+ * The package index is built from the jar central directories (shared through the {@link JarIndexCache}) when the
+ * strategy is created, so the realms classpath must be complete by then.  Directories (and jars which can not be read) can not be indexed; when
+ * the realm has any of those it is always searched.  The most recent classes and resources which could not be
+ * found are remembered, so repeated lookups (which Groovy does a lot of) fail fast.
+ *
+ * @version $Id$
+ */
+public class IndexedStrategy
+    extends AbstractStrategy
+{
+    private static final Logger log = LoggerFactory.getLogger(IndexedStrategy.class);
+
+    private final Set packages = new HashSet();
+
+    private final List indexedFiles = new ArrayList();
+
+    private boolean complete = true;
+
+    /**
+     * The maximum number of misses remembered for classes and for resources.
+     */
+    static final int MAX_MISSES = 1024;
+
+    private final Map missingClasses = createMissCache();
+
+    private final Map missingResources = createMissCache();
+
+    private final RealmMetrics metrics;
+
+    public IndexedStrategy(final ClassRealm realm, final RealmMetrics metrics) {
+        super(realm);
+
+        assert metrics != null;
+        this.metrics = metrics;
+
+        URL[] classPath = realm.getURLs();
+        for (int i=0; i<classPath.length; i++) {
+            index(classPath[i]);
+        }
+
+        log.debug("Indexed {} packages for realm: {}", String.valueOf(packages.size()), realm.getId());
+    }
+
+    private void index(final URL url) {
+        assert url != null;
+
+        if (!"file".equals(url.getProtocol()) || url.getPath().endsWith("/")) {
+            complete = false;
+            return;
+        }
+
+        try {
+            File file = new File(URLDecoder.decode(url.getPath().replaceAll("\\+", "%2B"), "UTF-8"));
+
+            packages.addAll(JarIndexCache.getInstance().acquire(file));
+            indexedFiles.add(file);
+        }
+        catch (IOException e) {
+            log.debug("Unable to index: " + url, e);
+            complete = false;
+        }
+    }
+
+    /**
+     * Release the shared jar indexes used by this strategy; called when the realm is disposed.
+     */
+    public synchronized void dispose() {
+        for (Iterator iter = indexedFiles.iterator(); iter.hasNext();) {
+            JarIndexCache.getInstance().release((File) iter.next());
+        }
+
+        indexedFiles.clear();
+    }
+
+    /**
+     * Release the shared jar indexes of the given realm, if it uses an indexed strategy.
+     */
+    public static void dispose(final ClassRealm realm) {
+        assert realm != null;
+
+        if (realm.getStrategy() instanceof IndexedStrategy) {
+            ((IndexedStrategy) realm.getStrategy()).dispose();
+        }
+    }
+
+    private static Map createMissCache() {
+        return Collections.synchronizedMap(new LinkedHashMap(64, 0.75f, true) {
+            protected boolean removeEldestEntry(final Map.Entry eldest) {
+                return size() > MAX_MISSES;
+            }
+        });
+    }
+
+    int missCount() {
+        return missingClasses.size() + missingResources.size();
+    }
+
+    boolean contains(final String resource) {
+        return !complete || packages.contains(JarIndexCache.packageOf(resource));
+    }
+
+    public Class loadClass(final String name) throws ClassNotFoundException {
+        if (missingClasses.get(name) != null) {
+            metrics.classLookupMissCached();
+            throw new ClassNotFoundException(name);
+        }
+
+        Class type = realm.loadClassFromImport(name);
+
+        if (type == null) {
+            type = realm.loadClassFromParent(name);
+
+            if (type == null && contains(name.replace('.', '/'))) {
+                type = realm.loadClassFromSelf(name);
+
+                if (type != null) {
+                    metrics.classLoaded();
+                }
+            }
+
+            if (type == null) {
+                missingClasses.put(name, Boolean.TRUE);
+                throw new ClassNotFoundException(name);
+            }
+        }
+
+        return type;
+    }
+
+    public URL getResource(final String name) {
+        if (missingResources.get(name) != null) {
+            return null;
+        }
+
+        URL url = realm.loadResourceFromImport(name);
+
+        if (url == null) {
+            url = realm.loadResourceFromParent(name);
+
+            if (url == null && contains(normalize(name))) {
+                url = realm.loadResourceFromSelf(name);
+            }
+
+            if (url == null) {
+                missingResources.put(name, Boolean.TRUE);
+            }
+        }
+
+        return url;
+    }
+
+    public Enumeration getResources(final String name) throws IOException {
+        Enumeration imports = realm.loadResourcesFromImport(name);
+        Enumeration parent = realm.loadResourcesFromParent(name);
+        Enumeration self;
+
+        if (contains(normalize(name))) {
+            self = realm.loadResourcesFromSelf(name);
+        }
+        else {
+            self = new Vector().elements();
+        }
+
+        return combineResources(imports, parent, self);
+    }
+
+    private static String normalize(final String name) {
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Shared cache of the packages contained in jar files, so each jar central directory is only read once
+ * no matter how many realms put the jar on their classpath.
+ *
+ * Entries are reference counted by the {@link IndexedStrategy} instances using them.  Unreferenced entries
+ * are kept until {@link #purge} is called, so realms created later in the same build can still reuse them.
+ *
+ * @version $Id$
+ */
+final class JarIndexCache
+{
+    private static final JarIndexCache INSTANCE = new JarIndexCache();
+
+    public static JarIndexCache getInstance() {
+        return INSTANCE;
+    }
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Map entries = new HashMap();
+
+    private long hits;
+
+    private long misses;
+
+    private JarIndexCache() {}
+
+    /**
+     * Acquire the (unmodifiable) set of packages in the given jar, reading its central directory if needed.
+     */
+    public synchronized Set acquire(final File file) throws IOException {
+        assert file != null;
+
+        String key = file.getAbsolutePath();
+        Entry entry = (Entry) entries.get(key);
+
+        if (entry == null || !entry.isCurrent(file)) {
+            entry = new Entry(file, read(file));
+            entries.put(key, entry);
+            misses++;
+        }
+        else {
+            hits++;
+        }
+
+        entry.references++;
+
+        return entry.packages;
+    }
+
+    public synchronized void release(final File file) {
+        assert file != null;
+
+        Entry entry = (Entry) entries.get(file.getAbsolutePath());
+
+        if (entry != null && entry.references > 0) {
+            entry.references--;
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Drop all entries which are no longer referenced.
+     */
+    public synchronized void purge() {
+        for (Iterator iter = entries.values().iterator(); iter.hasNext();) {
+            Entry entry = (Entry) iter.next();
+
+            if (entry.references <= 0) {
+                iter.remove();
+            }
+        }
+
+        log.debug("Jar indexes retained: {}", String.valueOf(entries.size()));
+    }
+
+    private Set read(final File file) throws IOException {
+        assert file != null;
+
+        log.debug("Indexing: {}", file);
+
+        Set packages = new HashSet();
+
+        ZipFile jar = new ZipFile(file);
+        try {
+            for (Enumeration iter = jar.entries(); iter.hasMoreElements();) {
+                addPackages(((ZipEntry) iter.nextElement()).getName(), packages);
+            }
+        }
+        finally {
+            jar.close();
+        }
+
+        return Collections.unmodifiableSet(packages);
+    }
+
+    /**
+     * Returns the directory part of a resource name; for directory entries the directory itself.
+     */
+    public static String packageOf(final String resource) {
+        assert resource != null;
+
+        int i = resource.lastIndexOf('/');
+
+        return i < 0 ? "" : resource.substring(0, i);
+    }
+
+    /**
+     * Adds the package of the given resource and all of its parents; jars often have no entries for
+     * their directories, yet directory lookups must still find them.
+     */
+    static void addPackages(final String resource, final Set packages) {
+        assert resource != null;
+        assert packages != null;
+
+        String name = packageOf(resource);
+
+        while (packages.add(name) && name.length() != 0) {
+            name = packageOf(name);
+        }
+    }
+
+    //
+    // Entry
+    //
+
+    private static class Entry
+    {
+        public final long lastModified;
+
+        public final long length;
+
+        public final Set packages;
+
+        public int references;
+
+        public Entry(final File file, final Set packages) {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.packages = packages;
+        }
+
+        public boolean isCurrent(final File file) {
+            return lastModified == file.lastModified() && length == file.length();
+        }
+    }
+}
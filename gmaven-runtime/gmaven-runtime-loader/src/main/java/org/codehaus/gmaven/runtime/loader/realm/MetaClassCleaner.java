@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.Introspector;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Removes the Groovy meta-classes (and class-info) of classes loaded by a realm, or any class loader below it,
+ * so the Groovy runtime shared through the provider realm does not keep the realm reachable once disposed.
+ *
+ * The runtime is only accessed reflectively, since the loader does not know which Groovy version the
+ * provider uses.  Older runtimes without the needed API are skipped.
+ *
+ * @version $Id$
+ */
+final class MetaClassCleaner
+{
+    private static final Logger log = LoggerFactory.getLogger(MetaClassCleaner.class);
+
+    private static final Class[] NO_TYPES = {};
+
+    private static final Object[] NO_ARGS = {};
+
+    private MetaClassCleaner() {}
+
+    public static void purge(final ClassLoader loader) {
+        assert loader != null;
+
+        try {
+            Class groovySystem = loader.loadClass("groovy.lang.GroovySystem");
+            Class metaClassType = loader.loadClass("groovy.lang.MetaClass");
+
+            Object registry = groovySystem.getMethod("getMetaClassRegistry", NO_TYPES).invoke(null, NO_ARGS);
+            Method getTheClass = metaClassType.getMethod("getTheClass", NO_TYPES);
+
+            // Collect first, removing while iterating the registry is not safe
+            List classes = new ArrayList();
+            Iterator iter = (Iterator) registry.getClass().getMethod("iterator", NO_TYPES).invoke(registry, NO_ARGS);
+            while (iter.hasNext()) {
+                Class type = (Class) getTheClass.invoke(iter.next(), NO_ARGS);
+
+                if (type != null && isLoadedBy(type, loader)) {
+                    classes.add(type);
+                }
+            }
+
+            Method removeMetaClass = registry.getClass().getMethod("removeMetaClass", new Class[] { Class.class });
+            Method removeClassInfo = findClassInfoRemove(loader);
+
+            for (int i=0; i<classes.size(); i++) {
+                Class type = (Class) classes.get(i);
+                Object[] args = { type };
+
+                removeMetaClass.invoke(registry, args);
+
+                if (removeClassInfo != null) {
+                    removeClassInfo.invoke(null, args);
+                }
+
+                Introspector.flushFromCaches(type);
+            }
+
+            log.debug("Purged {} meta-classes for: {}", String.valueOf(classes.size()), loader);
+        }
+        catch (Exception e) {
+            log.debug("Unable to purge meta-classes for: " + loader, e);
+        }
+    }
+
+    private static Method findClassInfoRemove(final ClassLoader loader) {
+        try {
+            return loader.loadClass("org.codehaus.groovy.reflection.ClassInfo").getMethod("remove", new Class[] { Class.class });
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean isLoadedBy(final Class type, final ClassLoader loader) {
+        for (ClassLoader cl = type.getClassLoader(); cl != null; cl = cl.getParent()) {
+            if (cl == loader) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
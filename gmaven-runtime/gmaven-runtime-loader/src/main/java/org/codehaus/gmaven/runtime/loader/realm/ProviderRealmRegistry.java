@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import org.codehaus.gmaven.runtime.util.FlightEvent;
+import org.codehaus.plexus.classworlds.ClassWorld;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.codehaus.plexus.classworlds.realm.NoSuchRealmException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of provider realms shared by all {@link DefaultRealmManager} instances loaded by the same class loader.
+ * Realms are keyed by provider key, classpath and parent, and are reference counted so that the Groovy runtime
+ * classes are only loaded once, no matter how often the realm manager component itself is recreated.
+ *
+ * @version $Id$
+ */
+final class ProviderRealmRegistry
+{
+    private static final ProviderRealmRegistry INSTANCE = new ProviderRealmRegistry();
+
+    public static ProviderRealmRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ClassWorld classWorld = new ClassWorld();
+
+    /**
+     * {@link Key} -> {@link Entry}.
+     */
+    private final Map entries = new HashMap();
+
+    /**
+     * Realm id -> {@link Key}, to release entries by the id of their realm.
+     */
+    private final Map keys = new HashMap();
+
+    private ProviderRealmRegistry() {}
+
+    public ClassWorld getClassWorld() {
+        return classWorld;
+    }
+
+    /**
+     * Returns a readable realm id for the given provider key, classpath and parent.  Ids are not guaranteed
+     * to be unique, callers must check the class world before using them.
+     */
+    public String realmId(final String key, final URL[] classPath, final ClassLoader parent) {
+        assert key != null;
+        assert classPath != null;
+        assert parent != null;
+
+        int hash = System.identityHashCode(parent);
+        for (int i=0; i<classPath.length; i++) {
+            hash = 31 * hash + classPath[i].toExternalForm().hashCode();
+        }
+
+        return key + "@" + Integer.toHexString(hash);
+    }
+
+    /**
+     * Returns the registry key of the given provider key, classpath and parent.
+     */
+    public Key key(final String key, final URL[] classPath, final ClassLoader parent) {
+        return new Key(key, classPath, parent);
+    }
+
+    /**
+     * Acquire a reference to the realm registered for the given key, or null if it has not been registered yet.
+     */
+    public synchronized ClassRealm acquire(final Key key) {
+        assert key != null;
+
+        Entry entry = (Entry) entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        entry.references++;
+
+        log.debug("Acquired shared provider realm: {} ({} references)", entry.realm.getId(), String.valueOf(entry.references));
+
+        return entry.realm;
+    }
+
+    /**
+     * Register a newly created realm, holding the first reference to it.
+     */
+    public synchronized void register(final Key key, final ClassRealm realm) {
+        assert key != null;
+        assert realm != null;
+
+        entries.put(key, new Entry(realm));
+        keys.put(realm.getId(), key);
+    }
+
+    /**
+     * Release a reference to the realm with the given id, disposing the realm when no more references remain.
+     */
+    public synchronized void release(final String id) {
+        assert id != null;
+
+        Key key = (Key) keys.get(id);
+        if (key == null) {
+            return;
+        }
+
+        Entry entry = (Entry) entries.get(key);
+
+        if (--entry.references > 0) {
+            log.debug("Released shared provider realm: {} ({} references)", id, String.valueOf(entry.references));
+            return;
+        }
+
+        entries.remove(key);
+        keys.remove(id);
+
+        log.debug("Disposing shared provider realm: {}", id);
+
+        FlightEvent event = FlightEvent.begin(FlightEvent.REALM_DISPOSE).phase("provider");
+
+        IndexedStrategy.dispose(entry.realm);
+
+        try {
+            classWorld.disposeRealm(id);
+        }
+        catch (NoSuchRealmException e) {
+            log.debug("Shared provider realm already disposed: " + id, e);
+        }
+        finally {
+            event.end();
+        }
+    }
+
+    //
+    // Key
+    //
+
+    /**
+     * Identifies a provider realm by provider key, the full classpath and the identity of the parent.
+     */
+    static final class Key
+    {
+        private final String key;
+
+        private final List classPath;
+
+        private final ClassLoader parent;
+
+        private final int hash;
+
+        Key(final String key, final URL[] classPath, final ClassLoader parent) {
+            assert key != null;
+            assert classPath != null;
+            assert parent != null;
+
+            this.key = key;
+            this.parent = parent;
+
+            // Compare URLs by their external form, URL.equals() resolves host names
+            this.classPath = new ArrayList(classPath.length);
+            for (int i=0; i<classPath.length; i++) {
+                this.classPath.add(classPath[i].toExternalForm());
+            }
+
+            this.hash = (31 * key.hashCode() + this.classPath.hashCode()) * 31 + System.identityHashCode(parent);
+        }
+
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return parent == other.parent && key.equals(other.key) && classPath.equals(other.classPath);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    //
+    // Entry
+    //
+
+    private static class Entry
+    {
+        public final ClassRealm realm;
+
+        public int references = 1;
+
+        public Entry(final ClassRealm realm) {
+            this.realm = realm;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tracks disposed realms through weak references, to detect realms which stay reachable after being released.
+ *
+ * Each owner of realms (such as a script execution) uses its own detector, and checks it once the realms
+ * have been released and are no longer referenced from its stack.
+ *
+ * @version $Id$
+ */
+public final class RealmLeakDetector
+{
+    /**
+     * Garbage collection is only repeated while tracked realms are still reachable.
+     */
+    private static final int GC_ATTEMPTS = 3;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final List tracked = new ArrayList();
+
+    public RealmLeakDetector() {}
+
+    /**
+     * Track a realm which has been released and should become unreachable.
+     */
+    public synchronized void track(final ClassRealm realm) {
+        assert realm != null;
+
+        tracked.add(new Tracked(realm));
+    }
+
+    /**
+     * Collect garbage and return the ids of tracked realms which are still reachable; those stop being tracked.
+     */
+    public synchronized List check() {
+        if (tracked.isEmpty()) {
+            return new ArrayList();
+        }
+
+        for (int i=0; i<GC_ATTEMPTS && !isCollected(); i++) {
+            System.gc();
+            System.runFinalization();
+        }
+
+        List leaked = new ArrayList();
+
+        for (Iterator iter = tracked.iterator(); iter.hasNext();) {
+            Tracked ref = (Tracked) iter.next();
+
+            if (ref.get() != null) {
+                log.debug("Realm still reachable after release: {}", ref.id);
+                leaked.add(ref.id);
+            }
+        }
+
+        tracked.clear();
+
+        return leaked;
+    }
+
+    private boolean isCollected() {
+        for (Iterator iter = tracked.iterator(); iter.hasNext();) {
+            if (((Tracked) iter.next()).get() != null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //
+    // Tracked
+    //
+
+    private static class Tracked
+        extends WeakReference
+    {
+        public final String id;
+
+        public Tracked(final ClassRealm realm) {
+            super(realm);
+
+            this.id = realm.getId();
+        }
+    }
+}
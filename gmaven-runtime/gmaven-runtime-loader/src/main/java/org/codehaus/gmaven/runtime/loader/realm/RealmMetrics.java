@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provider loading and realm metrics collected by a {@link RealmManager}.
+ *
+ * @version $Id$
+ */
+public class RealmMetrics
+    implements RealmMetricsMBean
+{
+    private final Map resolutionTimes = Collections.synchronizedMap(new LinkedHashMap());
+
+    private final AtomicLong classPathIndexHits = new AtomicLong();
+
+    private final Map providerRealmTimes = Collections.synchronizedMap(new LinkedHashMap());
+
+    private final AtomicLong providerRealmsShared = new AtomicLong();
+
+    private final AtomicLong componentRealmsCreated = new AtomicLong();
+
+    private final AtomicLong componentRealmsReleased = new AtomicLong();
+
+    private final AtomicLong componentRealmTime = new AtomicLong();
+
+    private final AtomicLong classesLoaded = new AtomicLong();
+
+    private final AtomicLong classLookupMissesCached = new AtomicLong();
+
+    public void resolved(final String key, final long millis, final boolean indexed) {
+        assert key != null;
+
+        resolutionTimes.put(key, new Long(millis));
+
+        if (indexed) {
+            classPathIndexHits.incrementAndGet();
+        }
+    }
+
+    public void providerRealmCreated(final String key, final long millis) {
+        assert key != null;
+
+        providerRealmTimes.put(key, new Long(millis));
+    }
+
+    public void providerRealmShared() {
+        providerRealmsShared.incrementAndGet();
+    }
+
+    public void componentRealmCreated(final long millis) {
+        componentRealmsCreated.incrementAndGet();
+        componentRealmTime.addAndGet(millis);
+    }
+
+    public void componentRealmReleased() {
+        componentRealmsReleased.incrementAndGet();
+    }
+
+    /**
+     * Called for every class loaded through an {@link IndexedStrategy}, so this must not lock.
+     */
+    public void classLoaded() {
+        classesLoaded.incrementAndGet();
+    }
+
+    public void classLookupMissCached() {
+        classLookupMissesCached.incrementAndGet();
+    }
+
+    public Map getResolutionTimes() {
+        return copy(resolutionTimes);
+    }
+
+    public long getClassPathIndexHits() {
+        return classPathIndexHits.get();
+    }
+
+    public Map getProviderRealmTimes() {
+        return copy(providerRealmTimes);
+    }
+
+    public long getProviderRealmsShared() {
+        return providerRealmsShared.get();
+    }
+
+    public long getComponentRealmsCreated() {
+        return componentRealmsCreated.get();
+    }
+
+    public long getComponentRealmsReleased() {
+        return componentRealmsReleased.get();
+    }
+
+    public long getComponentRealmTime() {
+        return componentRealmTime.get();
+    }
+
+    public long getClassesLoaded() {
+        return classesLoaded.get();
+    }
+
+    public long getClassLookupMissesCached() {
+        return classLookupMissesCached.get();
+    }
+
+    public long getJarIndexHits() {
+        return JarIndexCache.getInstance().getHits();
+    }
+
+    public long getJarIndexMisses() {
+        return JarIndexCache.getInstance().getMisses();
+    }
+
+    public double getJarIndexHitRate() {
+        long hits = getJarIndexHits();
+        long total = hits + getJarIndexMisses();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static Map copy(final Map times) {
+        synchronized (times) {
+            return new LinkedHashMap(times);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader;
+
+import junit.framework.TestCase;
+import org.codehaus.gmaven.feature.Provider;
+import org.codehaus.gmaven.feature.ProviderLoader;
+import org.codehaus.gmaven.feature.Version;
+import org.codehaus.gmaven.feature.support.ProviderSupport;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link DefaultProviderSelector} class.
+ *
+ * @version $Id$
+ */
+public class DefaultProviderSelectorTest
+    extends TestCase
+{
+    private DefaultProviderSelector selector;
+
+    private Map loaders;
+
+    protected void setUp() throws Exception {
+        selector = new DefaultProviderSelector();
+        loaders = new LinkedHashMap();
+    }
+
+    public void testPreferredLoaderSkipsFallbacks() throws Exception {
+        Map provided = Collections.singletonMap("1.6", "preferred");
+        CountingLoader preferred = new CountingLoader(provided, null);
+        CountingLoader fallback = new CountingLoader(Collections.singletonMap("1.6", "fallback"), null);
+        loaders.put("preferred", preferred);
+        loaders.put("default", fallback);
+
+        assertSame(provided, selector.load("1.6", loaders));
+        assertEquals(1, preferred.count);
+        assertEquals(0, fallback.count);
+    }
+
+    public void testFallbackAfterFailure() throws Exception {
+        Map provided = Collections.singletonMap("1.6", "fallback");
+        CountingLoader preferred = new CountingLoader(null, new Exception("failed"));
+        CountingLoader fallback = new CountingLoader(provided, null);
+        loaders.put("preferred", preferred);
+        loaders.put("default", fallback);
+
+        assertSame(provided, selector.load("1.6", loaders));
+        assertEquals(1, preferred.count);
+        assertEquals(1, fallback.count);
+    }
+
+    public void testFallbackAfterEmptyResult() throws Exception {
+        Map provided = Collections.singletonMap("1.6", "fallback");
+        CountingLoader preferred = new CountingLoader(Collections.EMPTY_MAP, null);
+        CountingLoader fallback = new CountingLoader(provided, null);
+        loaders.put("preferred", preferred);
+        loaders.put("default", fallback);
+
+        assertSame(provided, selector.load("1.6", loaders));
+        assertEquals(1, fallback.count);
+    }
+
+    public void testNothingFound() throws Exception {
+        loaders.put("default", new CountingLoader(null, null));
+
+        assertNull(selector.load("1.6", loaders));
+        assertNull(selector.load("1.6", Collections.EMPTY_MAP));
+    }
+
+    public void testConcurrentSelectionsLoadOnce() throws Exception {
+        final BlockingSelector blocking = new BlockingSelector();
+        final DefaultProviderRegistry registry = new DefaultProviderRegistry();
+        final Provider[] selected = new Provider[4];
+        Thread[] threads = new Thread[selected.length];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        selected[index] = blocking.select(registry, "1.6");
+                    }
+                    catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        assertTrue(blocking.entered.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        blocking.release.countDown();
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            assertNotNull(selected[i]);
+            assertSame(selected[0], selected[i]);
+        }
+
+        assertEquals(1, blocking.loads.get());
+        assertSame(selected[0], blocking.select(registry, "1.6"));
+        assertEquals(1, blocking.loads.get());
+    }
+
+    public void testOtherKeysDoNotWait() throws Exception {
+        final BlockingSelector blocking = new BlockingSelector();
+        final DefaultProviderRegistry registry = new DefaultProviderRegistry();
+        final Provider[] selected = new Provider[1];
+
+        Thread thread = new Thread() {
+            public void run() {
+                try {
+                    selected[0] = blocking.select(registry, "1.6");
+                }
+                catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        thread.start();
+
+        assertTrue(blocking.entered.await(5, TimeUnit.SECONDS));
+
+        // Selected while 1.6 is still loading
+        assertEquals("1.7", blocking.select(registry, "1.7").key());
+
+        blocking.release.countDown();
+        thread.join();
+        assertEquals("1.6", selected[0].key());
+    }
+
+    /**
+     * Loads a provider for any key; loading 1.6 waits to be released.
+     */
+    private static class BlockingSelector
+        extends DefaultProviderSelector
+    {
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final AtomicInteger loads = new AtomicInteger();
+
+        protected Map load(final String key) throws Exception {
+            if (key.equals("1.6")) {
+                loads.incrementAndGet();
+                entered.countDown();
+                release.await();
+            }
+
+            return Collections.singletonMap(key, new ProviderImpl(key));
+        }
+    }
+
+    private static class ProviderImpl
+        extends ProviderSupport
+    {
+        ProviderImpl(final String key) {
+            super(key);
+        }
+
+        protected Version detectVersion() {
+            return null;
+        }
+
+        protected Map detectFeatures() {
+            return Collections.EMPTY_MAP;
+        }
+    }
+
+    private static class CountingLoader
+        implements ProviderLoader
+    {
+        private final Map result;
+
+        private final Exception failure;
+
+        private int count;
+
+        CountingLoader(final Map result, final Exception failure) {
+            this.result = result;
+            this.failure = failure;
+        }
+
+        public Map load(final String key) throws Exception {
+            count++;
+
+            if (failure != null) {
+                throw failure;
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader;
+
+import junit.framework.TestCase;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Tests for the {@link MBeans} class.
+ *
+ * @version $Id$
+ */
+public class MBeansTest
+    extends TestCase
+{
+    protected void tearDown() throws Exception {
+        System.getProperties().remove(MBeans.PROPERTY);
+    }
+
+    public void testDisabledByDefault() throws Exception {
+        assertNull(MBeans.register(new ProviderMetrics(), "ProviderMetrics"));
+    }
+
+    public void testRegisterWhenEnabled() throws Exception {
+        System.setProperty(MBeans.PROPERTY, "true");
+
+        ObjectName name = MBeans.register(new ProviderMetrics(), "ProviderMetrics");
+        assertNotNull(name);
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+        MBeans.unregister(name);
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.artifact;
+
+import junit.framework.TestCase;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+import java.io.File;
+
+/**
+ * Tests for the {@link ArtifactProviderLoader} class.
+ *
+ * @version $Id$
+ */
+public class ArtifactProviderLoaderTest
+    extends TestCase
+{
+    private ArtifactProviderLoader loader;
+
+    protected void setUp() throws Exception {
+        loader = new ArtifactProviderLoader();
+    }
+
+    private Artifact createQuery(final String version) {
+        return new DefaultArtifact("org.codehaus.gmaven.runtime", "gmaven-runtime-1.6", VersionRange.createFromVersion(version),
+            "runtime", "jar", null, new DefaultArtifactHandler("jar"));
+    }
+
+    public void testNoIndexDirectory() throws Exception {
+        assertNull(loader.getIndexFile(createQuery("1.6")));
+    }
+
+    public void testIndexFile() throws Exception {
+        File dir = new File("index");
+        loader.setIndexDirectory(dir);
+
+        assertEquals(new File(dir, "gmaven-runtime-1.6-1.6.classpath"), loader.getIndexFile(createQuery("1.6")));
+    }
+
+    public void testIndexFileIsQualified() throws Exception {
+        File dir = new File("index");
+        loader.setIndexDirectory(dir);
+        loader.setIndexQualifier("abc");
+
+        assertEquals(new File(dir, "gmaven-runtime-1.6-1.6-abc.classpath"), loader.getIndexFile(createQuery("1.6")));
+    }
+
+    public void testSnapshotsAreNotIndexed() throws Exception {
+        loader.setIndexDirectory(new File("index"));
+
+        assertNull(loader.getIndexFile(createQuery("1.6-SNAPSHOT")));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import junit.framework.TestCase;
+import org.codehaus.plexus.classworlds.ClassWorld;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests for the {@link IndexedStrategy} class.
+ *
+ * @version $Id$
+ */
+public class IndexedStrategyTest
+    extends TestCase
+{
+    private File jar;
+
+    private ClassRealm realm;
+
+    private IndexedStrategy strategy;
+
+    protected void setUp() throws Exception {
+        jar = File.createTempFile("indexed", ".jar");
+
+        // No directory entries, like many jars built by other tools
+        ZipOutputStream output = new ZipOutputStream(new FileOutputStream(jar));
+        try {
+            output.putNextEntry(new ZipEntry("org/example/deep/Thing.class"));
+            output.write(new byte[] { 0 });
+            output.putNextEntry(new ZipEntry("META-INF/services/org.example.Service"));
+            output.write(new byte[] { 0 });
+        }
+        finally {
+            output.close();
+        }
+
+        realm = new ClassWorld().newRealm("indexed", null);
+        realm.addURL(jar.toURI().toURL());
+        strategy = new IndexedStrategy(realm, new RealmMetrics());
+    }
+
+    protected void tearDown() throws Exception {
+        strategy.dispose();
+        JarIndexCache.getInstance().purge();
+        jar.delete();
+    }
+
+    public void testAddPackagesAddsParents() throws Exception {
+        Set packages = new HashSet();
+        JarIndexCache.addPackages("a/b/c/D.class", packages);
+
+        assertEquals(4, packages.size());
+        assertTrue(packages.contains("a/b/c"));
+        assertTrue(packages.contains("a/b"));
+        assertTrue(packages.contains("a"));
+        assertTrue(packages.contains(""));
+    }
+
+    public void testContainsPackages() throws Exception {
+        assertTrue(strategy.contains("org/example/deep/Thing.class"));
+        assertTrue(strategy.contains("META-INF/services/org.example.Service"));
+        assertFalse(strategy.contains("org/other/Thing.class"));
+    }
+
+    public void testContainsParentDirectories() throws Exception {
+        assertTrue(strategy.contains("org/example/deep/"));
+        assertTrue(strategy.contains("org/example/"));
+        assertTrue(strategy.contains("org/"));
+        assertTrue(strategy.contains("META-INF/services/"));
+    }
+
+    public void testFindsResources() throws Exception {
+        assertNotNull(strategy.getResource("META-INF/services/org.example.Service"));
+        assertNull(strategy.getResource("META-INF/services/org.example.Missing"));
+    }
+
+    public void testMissesAreBounded() throws Exception {
+        for (int i=0; i<IndexedStrategy.MAX_MISSES * 3; i++) {
+            assertNull(strategy.getResource("missing/Resource" + i));
+
+            try {
+                strategy.loadClass("missing.Class" + i);
+                fail();
+            }
+            catch (ClassNotFoundException expected) {
+                // expected
+            }
+        }
+
+        assertEquals(IndexedStrategy.MAX_MISSES * 2, strategy.missCount());
+    }
+}
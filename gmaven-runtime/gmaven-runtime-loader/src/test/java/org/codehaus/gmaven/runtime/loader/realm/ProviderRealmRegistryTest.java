@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import junit.framework.TestCase;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+
+import java.io.File;
+import java.net.URL;
+
+/**
+ * Tests for the {@link ProviderRealmRegistry} and its use by {@link DefaultRealmManager}.
+ *
+ * @version $Id$
+ */
+public class ProviderRealmRegistryTest
+    extends TestCase
+{
+    private final ProviderRealmRegistry registry = ProviderRealmRegistry.getInstance();
+
+    private final ClassLoader parent = getClass().getClassLoader();
+
+    private URL[] classPath(final String[] names) throws Exception {
+        URL[] urls = new URL[names.length];
+        for (int i=0; i<names.length; i++) {
+            urls[i] = new File(names[i]).toURI().toURL();
+        }
+        return urls;
+    }
+
+    public void testKeyComparesFullClassPath() throws Exception {
+        URL[] a = classPath(new String[] { "a.jar", "b.jar" });
+
+        assertEquals(registry.key("1.6", a, parent), registry.key("1.6", classPath(new String[] { "a.jar", "b.jar" }), parent));
+        assertFalse(registry.key("1.6", a, parent).equals(registry.key("1.6", classPath(new String[] { "b.jar", "a.jar" }), parent)));
+        assertFalse(registry.key("1.6", a, parent).equals(registry.key("1.6", classPath(new String[] { "a.jar" }), parent)));
+        assertFalse(registry.key("1.6", a, parent).equals(registry.key("1.7", a, parent)));
+        assertFalse(registry.key("1.6", a, parent).equals(registry.key("1.6", a, new ClassLoader(parent) {})));
+    }
+
+    public void testAcquireAndRelease() throws Exception {
+        URL[] urls = classPath(new String[] { "registry.jar" });
+        ProviderRealmRegistry.Key key = registry.key("test", urls, parent);
+
+        assertNull(registry.acquire(key));
+
+        ClassRealm realm = registry.getClassWorld().newRealm("testAcquireAndRelease", parent);
+        registry.register(key, realm);
+
+        assertSame(realm, registry.acquire(registry.key("test", urls, parent)));
+
+        registry.release(realm.getId());
+        assertNotNull(registry.getClassWorld().getClassRealm(realm.getId()));
+
+        registry.release(realm.getId());
+        assertNull(registry.getClassWorld().getClassRealm(realm.getId()));
+        assertNull(registry.acquire(key));
+    }
+
+    public void testManagersShareOnlyIdenticalClassPaths() throws Exception {
+        DefaultRealmManager first = new DefaultRealmManager();
+        DefaultRealmManager second = new DefaultRealmManager();
+
+        try {
+            ClassRealm a = first.createProviderRealm("shared", classPath(new String[] { "x.jar", "y.jar" }), parent);
+            ClassRealm b = second.createProviderRealm("shared", classPath(new String[] { "x.jar", "y.jar" }), parent);
+            ClassRealm c = second.createProviderRealm("other", classPath(new String[] { "x.jar", "z.jar" }), parent);
+
+            assertSame(a, b);
+            assertNotSame(a, c);
+        }
+        finally {
+            first.dispose();
+            second.dispose();
+        }
+    }
+}
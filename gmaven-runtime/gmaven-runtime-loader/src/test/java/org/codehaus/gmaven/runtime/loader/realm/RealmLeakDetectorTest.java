@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import junit.framework.TestCase;
+import org.codehaus.plexus.classworlds.ClassWorld;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+
+import java.util.List;
+
+/**
+ * Tests for the {@link RealmLeakDetector} class.
+ *
+ * @version $Id$
+ */
+public class RealmLeakDetectorTest
+    extends TestCase
+{
+    private final ClassWorld world = new ClassWorld();
+
+    private void trackReleased(final RealmLeakDetector detector, final String id) throws Exception {
+        ClassRealm realm = world.newRealm(id, null);
+        world.disposeRealm(id);
+        detector.track(realm);
+    }
+
+    public void testReleasedRealmIsNotReported() throws Exception {
+        RealmLeakDetector detector = new RealmLeakDetector();
+        trackReleased(detector, "released");
+
+        assertTrue(detector.check().isEmpty());
+    }
+
+    public void testReachableRealmIsReported() throws Exception {
+        RealmLeakDetector detector = new RealmLeakDetector();
+
+        ClassRealm realm = world.newRealm("leaked", null);
+        world.disposeRealm("leaked");
+        detector.track(realm);
+
+        List leaked = detector.check();
+        assertEquals(1, leaked.size());
+        assertEquals("leaked", leaked.get(0));
+        assertNotNull(realm);
+
+        // Reported realms stop being tracked
+        assertTrue(detector.check().isEmpty());
+    }
+
+    public void testDetectorsAreIndependent() throws Exception {
+        RealmLeakDetector first = new RealmLeakDetector();
+        RealmLeakDetector second = new RealmLeakDetector();
+
+        ClassRealm realm = world.newRealm("first", null);
+        first.track(realm);
+        trackReleased(second, "second");
+
+        assertTrue(second.check().isEmpty());
+        assertEquals(1, first.check().size());
+        assertNotNull(realm);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.loader.realm;
+
+import junit.framework.TestCase;
+
+import java.util.Map;
+
+/**
+ * Tests for the {@link RealmMetrics} class.
+ *
+ * @version $Id$
+ */
+public class RealmMetricsTest
+    extends TestCase
+{
+    private RealmMetrics metrics;
+
+    protected void setUp() throws Exception {
+        metrics = new RealmMetrics();
+    }
+
+    public void testConcurrentClassLoads() throws Exception {
+        Thread[] threads = new Thread[4];
+
+        for (int i=0; i<threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j=0; j<10000; j++) {
+                        metrics.classLoaded();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (int i=0; i<threads.length; i++) {
+            threads[i].join();
+        }
+
+        assertEquals(40000, metrics.getClassesLoaded());
+    }
+
+    public void testResolutionTimes() throws Exception {
+        metrics.resolved("1.6", 10, false);
+        metrics.resolved("1.5", 5, true);
+
+        Map times = metrics.getResolutionTimes();
+        assertEquals(new Long(10), times.get("1.6"));
+        assertEquals(new Long(5), times.get("1.5"));
+        assertEquals(1, metrics.getClassPathIndexHits());
+
+        // Returned maps are copies
+        times.clear();
+        assertEquals(2, metrics.getResolutionTimes().size());
+    }
+
+    public void testComponentRealms() throws Exception {
+        metrics.componentRealmCreated(3);
+        metrics.componentRealmCreated(4);
+        metrics.componentRealmReleased();
+
+        assertEquals(2, metrics.getComponentRealmsCreated());
+        assertEquals(1, metrics.getComponentRealmsReleased());
+        assertEquals(7, metrics.getComponentRealmTime());
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.support;
+
+import org.codehaus.gmaven.feature.Configuration;
+import org.codehaus.gmaven.runtime.ClassCompiler;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes compiled classes straight into a jar, instead of one file per class in the target directory.
+ *
+ * Entries are written in name order with a single timestamp, so a fixed timestamp gives reproducible jars.
+ * Like the Maven archiver, a fixed timestamp is stored as its UTC date and time, whatever the local time zone.
+ *
+ * @version $Id$
+ */
+public class ClassJar
+{
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private final File file;
+
+    private boolean compress = true;
+
+    private long timestamp = -1;
+
+    /**
+     * Entry name -> bytes.
+     */
+    private final Map entries = new TreeMap();
+
+    public ClassJar(final File file) {
+        assert file != null;
+
+        this.file = file;
+    }
+
+    /**
+     * Returns the jar configured with {@link ClassCompiler.Keys#TARGET_JAR}, or null to write to the target directory.
+     */
+    public static ClassJar forConfig(final Configuration config) {
+        assert config != null;
+
+        File file = config.get(ClassCompiler.Keys.TARGET_JAR, (File)null);
+
+        if (file == null) {
+            return null;
+        }
+
+        ClassJar jar = new ClassJar(file);
+        jar.setCompress(config.get(ClassCompiler.Keys.TARGET_JAR_COMPRESS, true));
+
+        String timestamp = config.get(ClassCompiler.Keys.TARGET_JAR_TIMESTAMP, (String)null);
+        if (timestamp != null) {
+            jar.setTimestamp(Long.parseLong(timestamp));
+        }
+
+        return jar;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * False to store entries without compression, which is faster to write and to read back.
+     */
+    public void setCompress(final boolean compress) {
+        this.compress = compress;
+    }
+
+    /**
+     * Modification time of all entries in milliseconds, or -1 to use the time the jar is written.
+     */
+    public void setTimestamp(final long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public void add(final String className, final byte[] bytes) {
+        assert className != null;
+        assert bytes != null;
+
+        entries.put(className.replace('.', '/') + ".class", bytes);
+    }
+
+    public void write() throws IOException {
+        long time = timestamp >= 0 ? toLocalTime(timestamp) : System.currentTimeMillis();
+
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory: " + dir);
+        }
+
+        JarOutputStream output = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+        try {
+            // Written by hand, the JarOutputStream manifest constructor would stamp it with the current time
+            putDirectory(output, "META-INF/", time);
+            putEntry(output, MANIFEST, createManifest(), time);
+
+            for (Iterator iter = getDirectories().iterator(); iter.hasNext();) {
+                putDirectory(output, (String) iter.next(), time);
+            }
+
+            for (Iterator iter = entries.entrySet().iterator(); iter.hasNext();) {
+                Map.Entry entry = (Map.Entry) iter.next();
+
+                putEntry(output, (String) entry.getKey(), (byte[]) entry.getValue(), time);
+            }
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Zip entries keep the local date and time of the time they are given; shifts a time so that they keep its UTC
+     * date and time instead, and jars built in different time zones are the same.
+     */
+    static long toLocalTime(final long time) {
+        return time - TimeZone.getDefault().getOffset(time);
+    }
+
+    private byte[] createManifest() throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Created-By", "GMaven");
+
+        ByteArrayOutputStream buff = new ByteArrayOutputStream();
+        manifest.write(buff);
+
+        return buff.toByteArray();
+    }
+
+    /**
+     * Returns every package directory of the entries, parents first.
+     */
+    private SortedSet getDirectories() {
+        SortedSet dirs = new TreeSet();
+
+        for (Iterator iter = entries.keySet().iterator(); iter.hasNext();) {
+            String name = (String) iter.next();
+            int i = name.indexOf('/');
+
+            while (i != -1) {
+                dirs.add(name.substring(0, i + 1));
+                i = name.indexOf('/', i + 1);
+            }
+        }
+
+        dirs.remove("META-INF/");
+
+        return dirs;
+    }
+
+    private void putDirectory(final JarOutputStream output, final String name, final long time) throws IOException {
+        putEntry(output, name, new byte[0], time);
+    }
+
+    private void putEntry(final JarOutputStream output, final String name, final byte[] bytes, final long time) throws IOException {
+        JarEntry entry = new JarEntry(name);
+        entry.setTime(time);
+
+        if (!compress || bytes.length == 0) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+
+        output.putNextEntry(entry);
+        output.write(bytes);
+        output.closeEntry();
+    }
+}
@@ -86,6 +86,29 @@ public abstract class CompilerSupport
         }
     }
 
+    /**
+     * Compiles the sources, reporting the operation to the component listeners.
+     */
+    public int compile() throws Exception {
+        long start = beginOperation("compile");
+
+        try {
+            int count = doCompile();
+            endOperation("compile", start);
+            return count;
+        }
+        catch (Exception e) {
+            failOperation("compile", start, e);
+            throw e;
+        }
+        catch (Error e) {
+            failOperation("compile", start, e);
+            throw e;
+        }
+    }
+
+    protected abstract int doCompile() throws Exception;
+
     public Collection sources() {
         return Collections.unmodifiableCollection(sources);
     }
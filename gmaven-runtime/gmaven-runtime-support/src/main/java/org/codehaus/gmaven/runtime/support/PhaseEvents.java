@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.support;
+
+import org.codehaus.gmaven.runtime.util.FlightEvent;
+
+/**
+ * Records each phase of a compilation unit as a {@link FlightEvent}.
+ *
+ * Runtimes call {@link #phase} before compiling and from their progress callback as each phase completes,
+ * and {@link #end} once compilation is over.
+ *
+ * @version $Id$
+ */
+public class PhaseEvents
+{
+    private final FlightEvent.Type type;
+
+    private FlightEvent current;
+
+    public PhaseEvents(final FlightEvent.Type type) {
+        assert type != null;
+
+        this.type = type;
+    }
+
+    /**
+     * Ends the current phase, if any, and begins the given one.
+     */
+    public void phase(final String phase) {
+        end();
+
+        current = FlightEvent.begin(type).phase(phase);
+    }
+
+    public void end() {
+        if (current != null) {
+            current.end();
+            current = null;
+        }
+    }
+}
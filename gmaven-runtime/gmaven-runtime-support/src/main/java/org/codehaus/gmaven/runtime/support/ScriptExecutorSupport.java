@@ -24,6 +24,7 @@ import org.codehaus.gmaven.runtime.ClassFactory;
 import org.codehaus.gmaven.runtime.ScriptExecutor;
 import org.codehaus.gmaven.runtime.util.Callable;
 import org.codehaus.gmaven.runtime.util.ClassSource;
+import org.codehaus.gmaven.runtime.util.FlightEvent;
 import org.codehaus.gmaven.runtime.util.MagicAttribute;
 import org.codehaus.gmaven.runtime.util.ResourceLoader;
 
@@ -31,6 +32,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Support for {@link ScriptExecutor} component implementations.
@@ -59,18 +62,71 @@ public abstract class ScriptExecutorSupport
         // context may be null
 
         // Create/load the class
-        Class type = getClassFactory().create(source, classLoader, resourceLoader);
+        Class type;
+        FlightEvent event = FlightEvent.begin(FlightEvent.SCRIPT_COMPILE).file(source);
+        long start = beginOperation("compile");
+        try {
+            type = getClassFactory().create(source, classLoader, resourceLoader);
+            endOperation("compile", start);
+        }
+        catch (Exception e) {
+            failOperation("compile", start, e);
+            throw e;
+        }
+        catch (Error e) {
+            failOperation("compile", start, e);
+            throw e;
+        }
+        finally {
+            event.end();
+        }
+
+        return execute(type, context);
+    }
 
-        // Create a new instance
-        Object target = type.newInstance();
+    public Object execute(final Class type, final Configuration context) throws Exception {
+        assert type != null;
+        // context may be null
 
-        // Apply the execution context if we have one
-        if (context != null) {
-            applyContext(target, context);
-        }
+        FlightEvent event = FlightEvent.begin(FlightEvent.SCRIPT_RUN).file(type.getName());
+        long start = beginOperation("execute");
+        try {
+            // Create a new instance
+            Object target = type.newInstance();
+            Object result;
+
+            // Scripts from our runtime can be bound and run directly
+            if (isScript(target)) {
+                if (context != null) {
+                    bindScript(target, createVariables(context));
+                }
 
-        // And then execute
-        return execute(target);
+                result = runScript(target);
+            }
+            else {
+                // Apply the execution context if we have one
+                if (context != null) {
+                    applyContext(target, context);
+                }
+
+                // And then execute
+                result = execute(target);
+            }
+
+            endOperation("execute", start);
+            return result;
+        }
+        catch (Exception e) {
+            failOperation("execute", start, e);
+            throw e;
+        }
+        catch (Error e) {
+            failOperation("execute", start, e);
+            throw e;
+        }
+        finally {
+            event.end();
+        }
     }
 
     protected abstract Object createClosure(Callable target);
@@ -78,18 +134,37 @@ public abstract class ScriptExecutorSupport
     protected abstract Object createMagicAttribute(MagicAttribute attr);
 
     //
-    // NOTE: Using reflection here to invoke setProperty() and run() to avoid evil class loading problems.
+    // Direct Execution
     //
 
-    protected void applyContext(final Object target, final Configuration context) {
+    /**
+     * Returns true if the target is a script of the providers runtime, which can be bound and run w/o reflection.
+     */
+    protected abstract boolean isScript(Object target);
+
+    protected abstract void bindScript(Object target, Map variables);
+
+    protected abstract Object doRunScript(Object target);
+
+    private Object runScript(final Object target) {
         assert target != null;
+
+        try {
+            return doRunScript(target);
+        }
+        catch (Throwable t) {
+            // Wrap everything, failed assertions included, the same as invokeMethod() does for the target of an ITE
+            throw new ComponentException(t);
+        }
+    }
+
+    protected Map createVariables(final Configuration context) {
         assert context != null;
 
-        Method setter = lookupMethod(target.getClass(), "setProperty", new Class[] { String.class, Object.class });
+        Map variables = new LinkedHashMap();
 
         log.debug("Setting context:");
 
-        // Install the context for the script
         for (Iterator iter = context.names().iterator(); iter.hasNext();) {
             String name = (String) iter.next();
             Object value = context.get(name);
@@ -117,7 +192,29 @@ public abstract class ScriptExecutorSupport
                 }
             }
 
-            invokeMethod(target, setter, new Object[] { name, value });
+            variables.put(name, value);
+        }
+
+        return variables;
+    }
+
+    //
+    // NOTE: Using reflection here to invoke setProperty() and run() to avoid evil class loading problems.
+    //
+
+    protected void applyContext(final Object target, final Configuration context) {
+        assert target != null;
+        assert context != null;
+
+        Method setter = lookupMethod(target.getClass(), "setProperty", new Class[] { String.class, Object.class });
+
+        Map variables = createVariables(context);
+
+        // Install the context for the script
+        for (Iterator iter = variables.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry entry = (Map.Entry) iter.next();
+
+            invokeMethod(target, setter, new Object[] { entry.getKey(), entry.getValue() });
         }
     }
 
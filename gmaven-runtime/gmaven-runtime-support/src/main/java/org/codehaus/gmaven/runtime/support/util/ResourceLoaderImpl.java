@@ -23,6 +23,8 @@ import org.slf4j.LoggerFactory;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Basic {@link ResourceLoader} implemenation.
@@ -37,6 +39,17 @@ public class ResourceLoaderImpl
 
     protected ClassLoader classLoader;
 
+    /**
+     * Marks names which could not be resolved.
+     */
+    private static final Object MISSING = new Object();
+
+    /**
+     * Resolved resources by name, or {@link #MISSING}.  A loader only lives for one compilation or execution,
+     * so misses are remembered as well.
+     */
+    private final Map resolved = new ConcurrentHashMap();
+
     public ResourceLoaderImpl(final ClassLoader classLoader) {
         assert classLoader != null;
 
@@ -44,7 +57,18 @@ public class ResourceLoaderImpl
     }
 
     public URL loadResource(final String name) throws MalformedURLException {
-        return resolve(name, classLoader);
+        assert name != null;
+
+        Object cached = resolved.get(name);
+
+        if (cached == null) {
+            URL url = resolve(name, classLoader);
+            resolved.put(name, url != null ? (Object) url : MISSING);
+
+            return url;
+        }
+
+        return cached != MISSING ? (URL) cached : null;
     }
 
     protected String toResourceName(final String className) {
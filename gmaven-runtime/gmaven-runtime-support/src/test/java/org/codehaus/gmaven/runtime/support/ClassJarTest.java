@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.support;
+
+import junit.framework.TestCase;
+import org.codehaus.gmaven.feature.Configuration;
+import org.codehaus.gmaven.runtime.ClassCompiler;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Tests for the {@link ClassJar} class.
+ *
+ * @version $Id$
+ */
+public class ClassJarTest
+    extends TestCase
+{
+    private static final long TIMESTAMP = 1262304000000L; // 2010-01-01T00:00:00Z
+
+    private File dir;
+
+    private TimeZone timeZone;
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("jar", "");
+        dir.delete();
+        dir.mkdirs();
+
+        timeZone = TimeZone.getDefault();
+    }
+
+    protected void tearDown() throws Exception {
+        TimeZone.setDefault(timeZone);
+
+        File[] files = dir.listFiles();
+        for (int i = 0; i < files.length; i++) {
+            files[i].delete();
+        }
+        dir.delete();
+    }
+
+    private File write(final String name, final boolean compress) throws Exception {
+        ClassJar jar = new ClassJar(new File(dir, name));
+        jar.setCompress(compress);
+        jar.setTimestamp(TIMESTAMP);
+        jar.add("b.B", new byte[] { 1, 2 });
+        jar.add("a.A", new byte[] { 3 });
+        jar.add("a.c.C", new byte[] { 4 });
+        jar.write();
+
+        return jar.getFile();
+    }
+
+    private byte[] read(final File file) throws Exception {
+        byte[] bytes = new byte[(int) file.length()];
+        InputStream input = new FileInputStream(file);
+        try {
+            assertEquals(bytes.length, input.read(bytes));
+        }
+        finally {
+            input.close();
+        }
+        return bytes;
+    }
+
+    public void testEntries() throws Exception {
+        JarFile jar = new JarFile(write("test.jar", false));
+
+        try {
+            List names = new ArrayList();
+            for (Enumeration e = jar.entries(); e.hasMoreElements();) {
+                ZipEntry entry = (ZipEntry) e.nextElement();
+                names.add(entry.getName());
+                assertEquals(ZipEntry.STORED, entry.getMethod());
+            }
+
+            assertEquals(Arrays.asList(new String[] {
+                "META-INF/", "META-INF/MANIFEST.MF", "a/", "a/c/", "b/", "a/A.class", "a/c/C.class", "b/B.class"
+            }), names);
+
+            assertEquals("GMaven", jar.getManifest().getMainAttributes().getValue("Created-By"));
+            assertEquals(2, jar.getEntry("b/B.class").getSize());
+        }
+        finally {
+            jar.close();
+        }
+    }
+
+    public void testReproducibleAcrossTimeZones() throws Exception {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        byte[] first = read(write("first.jar", true));
+
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        byte[] second = read(write("second.jar", true));
+
+        assertTrue(Arrays.equals(first, second));
+    }
+
+    public void testEntriesKeepTheUtcTime() throws Exception {
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        JarFile jar = new JarFile(write("test.jar", true));
+
+        try {
+            // Read back as local date and time, which must be the UTC date and time of the timestamp
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(jar.getEntry("a/A.class").getTime());
+
+            assertEquals(2010, calendar.get(Calendar.YEAR));
+            assertEquals(Calendar.JANUARY, calendar.get(Calendar.MONTH));
+            assertEquals(1, calendar.get(Calendar.DAY_OF_MONTH));
+            assertEquals(0, calendar.get(Calendar.HOUR_OF_DAY));
+        }
+        finally {
+            jar.close();
+        }
+    }
+
+    public void testForConfig() throws Exception {
+        Configuration config = new Configuration();
+        assertNull(ClassJar.forConfig(config));
+
+        File file = new File(dir, "config.jar");
+        config.set(ClassCompiler.Keys.TARGET_JAR, file);
+        config.set(ClassCompiler.Keys.TARGET_JAR_COMPRESS, false);
+        config.set(ClassCompiler.Keys.TARGET_JAR_TIMESTAMP, String.valueOf(TIMESTAMP));
+
+        ClassJar jar = ClassJar.forConfig(config);
+        assertEquals(file, jar.getFile());
+        jar.add("a.A", new byte[] { 3 });
+        jar.write();
+
+        JarFile written = new JarFile(file);
+        try {
+            assertEquals(ZipEntry.STORED, written.getEntry("a/A.class").getMethod());
+        }
+        finally {
+            written.close();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.support;
+
+import junit.framework.TestCase;
+import org.codehaus.gmaven.feature.Component;
+import org.codehaus.gmaven.feature.ComponentException;
+import org.codehaus.gmaven.feature.Configuration;
+import org.codehaus.gmaven.feature.support.FeatureSupport;
+import org.codehaus.gmaven.runtime.ClassFactory;
+import org.codehaus.gmaven.runtime.util.Callable;
+import org.codehaus.gmaven.runtime.util.MagicAttribute;
+
+import java.util.Map;
+
+/**
+ * Tests for the {@link ScriptExecutorSupport} class.
+ *
+ * @version $Id$
+ */
+public class ScriptExecutorSupportTest
+    extends TestCase
+{
+    private ExecutorImpl executor;
+
+    protected void setUp() throws Exception {
+        executor = new ExecutorImpl();
+    }
+
+    public void testBindsAndRunsScripts() throws Exception {
+        Configuration context = new Configuration();
+        context.set("name", "value");
+
+        Object result = executor.execute(FakeScript.class, context);
+
+        assertEquals("value", result);
+    }
+
+    public void testWrapsExceptions() throws Exception {
+        try {
+            executor.execute(FailingScript.class, null);
+            fail();
+        }
+        catch (ComponentException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    public void testWrapsErrors() throws Exception {
+        try {
+            executor.execute(ErrorScript.class, null);
+            fail();
+        }
+        catch (ComponentException e) {
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+    }
+
+    public static class FakeScript
+    {
+        Map variables;
+
+        Object run() {
+            return variables.get("name");
+        }
+    }
+
+    public static class FailingScript
+        extends FakeScript
+    {
+        Object run() {
+            throw new IllegalStateException();
+        }
+    }
+
+    public static class ErrorScript
+        extends FakeScript
+    {
+        Object run() {
+            throw new AssertionError("assert false");
+        }
+    }
+
+    private static class FeatureImpl
+        extends FeatureSupport
+    {
+        FeatureImpl() {
+            super("test");
+        }
+
+        protected Component doCreate() throws Exception {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class ExecutorImpl
+        extends ScriptExecutorSupport
+    {
+        ExecutorImpl() {
+            super(new FeatureImpl());
+        }
+
+        protected ClassFactory getClassFactory() {
+            throw new UnsupportedOperationException();
+        }
+
+        protected Object createClosure(final Callable target) {
+            return target;
+        }
+
+        protected Object createMagicAttribute(final MagicAttribute attr) {
+            return attr;
+        }
+
+        protected boolean isScript(final Object target) {
+            return target instanceof FakeScript;
+        }
+
+        protected void bindScript(final Object target, final Map variables) {
+            ((FakeScript) target).variables = variables;
+        }
+
+        protected Object doRunScript(final Object target) {
+            return ((FakeScript) target).run();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.gmaven.runtime.support.util;
+
+import junit.framework.TestCase;
+
+import java.net.URL;
+
+/**
+ * Tests for the {@link ResourceLoaderImpl} class.
+ *
+ * @version $Id$
+ */
+public class ResourceLoaderImplTest
+    extends TestCase
+{
+    public void testResolvesEachNameOnce() throws Exception {
+        CountingClassLoader cl = new CountingClassLoader();
+        ResourceLoaderImpl loader = new ResourceLoaderImpl(cl);
+
+        URL url = loader.loadResource("foo.Bar");
+        assertEquals(new URL("file:/foo/Bar.groovy"), url);
+        assertEquals(url, loader.loadResource("foo.Bar"));
+        assertEquals(1, cl.count);
+    }
+
+    public void testRemembersMissing() throws Exception {
+        CountingClassLoader cl = new CountingClassLoader();
+        ResourceLoaderImpl loader = new ResourceLoaderImpl(cl);
+
+        assertNull(loader.loadResource("missing.Thing"));
+        int count = cl.count;
+
+        assertNull(loader.loadResource("missing.Thing"));
+        assertEquals(count, cl.count);
+
+        // Misses are only remembered by the loader which looked them up
+        ResourceLoaderImpl other = new ResourceLoaderImpl(cl);
+        assertNull(other.loadResource("missing.Thing"));
+        assertEquals(count * 2, cl.count);
+    }
+
+    private static class CountingClassLoader
+        extends ClassLoader
+    {
+        int count;
+
+        public URL getResource(final String name) {
+            count++;
+
+            try {
+                return name.startsWith("/foo/") ? new URL("file:" + name) : null;
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
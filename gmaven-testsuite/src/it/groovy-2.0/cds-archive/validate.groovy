@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+//
+// $Id: validate.groovy 81 2009-12-10 09:07:22Z user57 $
+//
+
+def dir = new File(basedir, 'target/gmaven-cds')
+
+assert new File(dir, 'gmaven-runtime-2.0-workload.groovy').text.contains('`ticked`')
+assert new File(dir, 'gmaven-runtime-2.0.classlist').size() > 0
+assert new File(dir, 'gmaven-runtime-2.0.jsa').size() > 0
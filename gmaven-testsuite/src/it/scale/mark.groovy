@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+//
+// $Id$
+//
+
+//
+// Appends a timestamp for the current mark to target/scale-marks.properties
+//
+
+def file = new File(project.build.directory, 'scale-marks.properties')
+file.parentFile.mkdirs()
+file << project.properties['mark'] + '=' + System.currentTimeMillis() + '\n'
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+//
+// $Id$
+//
+
+//
+// Generates the synthetic sources for the project in basedir, size is set with -Dscale.files (default 1000)
+//
+
+import org.codehaus.gmaven.benchmarks.synthetic.SyntheticProjectGenerator
+
+def files = Integer.parseInt(System.getProperty('scale.files', '1000'))
+
+def generator = new SyntheticProjectGenerator()
+generator.files = files
+
+def count = generator.generate(basedir)
+println "Generated $count synthetic sources in: $basedir"
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+//
+// $Id$
+//
+
+//
+// Turns the recorded marks into per-goal times and appends them to the baselines for all runtimes.
+//
+// Each mark is an execute goal of its own, so the time between two marks also holds the cost of running
+// mark.groovy once. That cost is measured between the start and overhead marks and subtracted from each goal.
+//
+// The baselines are kept outside of the target directory so they survive a clean; see the scale.baselines
+// property of the scale-tests profile.
+//
+
+def marks = new Properties()
+new File(basedir, 'target/scale-marks.properties').withInputStream { marks.load(it) }
+
+def mark = { Long.parseLong(marks.getProperty(it)) }
+
+def goals = [ 'generateStubs', 'compile', 'generateTestStubs', 'testCompile' ]
+
+def overhead = mark('overhead') - mark('start')
+
+def times = new Properties()
+def previous = mark('overhead')
+goals.each { goal ->
+    def time = mark(goal)
+    times.setProperty(goal, String.valueOf(Math.max(0, time - previous - overhead)))
+    previous = time
+}
+
+def runtime = basedir.name
+def files = System.getProperty('scale.files', '1000')
+
+times.setProperty('runtime', runtime)
+times.setProperty('files', files)
+times.setProperty('markOverhead', String.valueOf(overhead))
+
+new File(basedir, 'target/scale-times.properties').withOutputStream { times.store(it, null) }
+
+def baselines = new File(binding.variables.containsKey('baselines') ? binding.variables.baselines : System.getProperty('user.home') + '/.gmaven/scale-baselines.csv')
+baselines.parentFile.mkdirs()
+if (!baselines.exists()) {
+    baselines << 'runtime,files,markOverhead,' + goals.join(',') + '\n'
+}
+baselines << runtime + ',' + files + ',' + overhead + ',' + goals.collect { times.getProperty(it) }.join(',') + '\n'
+
+println "Scale times for $runtime with $files files: $times"
+println "Appended to baselines: $baselines"
+
+assert new File(basedir, 'target/generated-sources/groovy-stubs/main/synthetic/p0/G0.java').exists()
+assert new File(basedir, 'target/classes/synthetic/p0/G0.class').exists()
+assert new File(basedir, 'target/classes/synthetic/p0/J0.class').exists()
+assert new File(basedir, 'target/test-classes/synthetic/p0/G0Check.class').exists()